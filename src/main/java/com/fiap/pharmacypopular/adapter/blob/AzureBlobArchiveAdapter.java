@@ -0,0 +1,151 @@
+package com.fiap.pharmacypopular.adapter.blob;
+
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.models.ListBlobsOptions;
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class AzureBlobArchiveAdapter implements BlobArchivePort {
+
+    private static final String BUNDLE_SUFFIX = ".bundle";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final BlobContainerClient container;
+    private final String processedPrefix;
+    private final String errorPrefix;
+    private final String archivePrefix;
+
+    public AzureBlobArchiveAdapter(BlobContainerClient container, String processedPrefix, String errorPrefix,
+                                   String archivePrefix) {
+        this.container = container;
+        this.processedPrefix = normalizePrefix(processedPrefix);
+        this.errorPrefix = normalizePrefix(errorPrefix);
+        this.archivePrefix = normalizePrefix(archivePrefix);
+    }
+
+    @Override
+    public List<ArchivableBlob> listArchivable(Area area, OffsetDateTime modifiedBefore) {
+        String prefix = area == Area.PROCESSED ? processedPrefix : errorPrefix;
+        var result = new ArrayList<ArchivableBlob>();
+
+        try {
+            for (BlobItem item : container.listBlobs(new ListBlobsOptions().setPrefix(prefix), null)) {
+                if (item.getProperties() == null || item.getProperties().getLastModified() == null) continue;
+                if (!item.getProperties().getLastModified().isBefore(modifiedBefore)) continue;
+
+                String relative = item.getName().substring(prefix.length());
+                int slash = relative.indexOf('/');
+                if (slash <= 0) continue;
+
+                Long size = item.getProperties().getContentLength();
+                result.add(new ArchivableBlob(item.getName(), relative.substring(0, slash),
+                        item.getProperties().getLastModified(), size == null ? -1 : size));
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to list archivable blobs: " + prefix, e);
+        }
+        return result;
+    }
+
+    @Override
+    public InputStream open(String blobName) {
+        try {
+            return container.getBlobClient(blobName).openInputStream();
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to open blob for download: " + blobName, e);
+        }
+    }
+
+    @Override
+    public void delete(String blobName) {
+        try {
+            container.getBlobClient(blobName).delete();
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() != 404) {
+                throw new InfrastructureException("Failed to delete blob: " + blobName, e);
+            }
+        }
+    }
+
+    @Override
+    public OutputStream openBundle(String bundleKey) {
+        String name = archivePrefix + bundleKey + BUNDLE_SUFFIX;
+        try {
+            return container.getBlobClient(name).getBlockBlobClient().getBlobOutputStream(false);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to open bundle for upload: " + name, e);
+        }
+    }
+
+    @Override
+    public void writeBundleIndex(String bundleKey, byte[] index) {
+        String name = archivePrefix + bundleKey + INDEX_SUFFIX;
+        try {
+            container.getBlobClient(name).upload(BinaryData.fromBytes(index), true);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to write bundle index: " + name, e);
+        }
+    }
+
+    @Override
+    public List<String> listBundles(String bundleKeyPrefix) {
+        var result = new ArrayList<String>();
+        try {
+            ListBlobsOptions options = new ListBlobsOptions().setPrefix(archivePrefix + bundleKeyPrefix);
+            for (BlobItem item : container.listBlobs(options, null)) {
+                if (item.getName().endsWith(INDEX_SUFFIX)) {
+                    String key = item.getName().substring(archivePrefix.length());
+                    result.add(key.substring(0, key.length() - INDEX_SUFFIX.length()));
+                }
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to list bundles: " + bundleKeyPrefix, e);
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<byte[]> readBundleIndex(String bundleKey) {
+        String name = archivePrefix + bundleKey + INDEX_SUFFIX;
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            container.getBlobClient(name).downloadStream(out);
+            return Optional.of(out.toByteArray());
+        } catch (BlobStorageException e) {
+            if (e.getStatusCode() == 404) return Optional.empty();
+            throw new InfrastructureException("Failed to read bundle index: " + name, e);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to read bundle index: " + name, e);
+        }
+    }
+
+    @Override
+    public byte[] readBundleRange(String bundleKey, long offset, long length) {
+        String name = archivePrefix + bundleKey + BUNDLE_SUFFIX;
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(length, Integer.MAX_VALUE))) {
+            container.getBlobClient(name).downloadStreamWithResponse(out, new BlobRange(offset, length), null, null,
+                    false, null, Context.NONE);
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to read bundle range: " + name + " offset=" + offset
+                    + " length=" + length, e);
+        }
+    }
+
+    private String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) return "";
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+}
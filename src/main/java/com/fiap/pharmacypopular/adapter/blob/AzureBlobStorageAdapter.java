@@ -1,33 +1,68 @@
 package com.fiap.pharmacypopular.adapter.blob;
 
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.Context;
 import com.azure.core.util.polling.SyncPoller;
 import com.azure.storage.blob.BlobClient;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobCopyInfo;
 import com.azure.storage.blob.models.BlobItem;
+import com.azure.storage.blob.models.BlobRequestConditions;
 import com.azure.storage.blob.models.ListBlobsOptions;
+import com.azure.storage.blob.models.TaggedBlobItem;
+import com.azure.storage.blob.options.BlobDownloadToFileOptions;
+import com.azure.storage.blob.options.FindBlobsOptions;
+import com.azure.storage.common.ParallelTransferOptions;
 import com.fiap.pharmacypopular.adapter.exception.DestinationAlreadyExistsException;
 import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
 import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
 
 public class AzureBlobStorageAdapter implements BlobStoragePort {
 
+    private static final Logger LOGGER = Logger.getLogger(AzureBlobStorageAdapter.class.getName());
+    private static final String REJECTS_SUFFIX = ".rejects.csv";
+    private static final String UPLOADED_AT_TAG = "ingest_uploaded_at";
+    private static final DateTimeFormatter UPLOADED_AT_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
     private final BlobContainerClient container;
     private final String inboxPrefix;
     private final String processedPrefix;
     private final String errorPrefix;
+    private final RangedDownloadSettings rangedDownload;
 
     public AzureBlobStorageAdapter(BlobContainerClient container, String inboxPrefix, String processedPrefix,
                                    String errorPrefix) {
+        this(container, inboxPrefix, processedPrefix, errorPrefix, RangedDownloadSettings.disabled());
+    }
+
+    public AzureBlobStorageAdapter(BlobContainerClient container, String inboxPrefix, String processedPrefix,
+                                   String errorPrefix, RangedDownloadSettings rangedDownload) {
         this.container = container;
         this.inboxPrefix = normalizePrefix(inboxPrefix);
         this.processedPrefix = normalizePrefix(processedPrefix);
         this.errorPrefix = normalizePrefix(errorPrefix);
+        this.rangedDownload = rangedDownload;
     }
 
     @Override
@@ -43,10 +78,45 @@ public class AzureBlobStorageAdapter implements BlobStoragePort {
             String name = item.getName();
             String etag = item.getProperties().getETag();
             var lastModified = item.getProperties().getLastModified();
+            Long size = item.getProperties().getContentLength();
 
             if (lastModified != null) {
-                result.add(new BlobRef(name, etag, lastModified));
+                result.add(new BlobRef(name, etag, lastModified, size == null ? -1 : size));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<BlobRef> listInboxBlobsUploadedBetween(OffsetDateTime after, OffsetDateTime upTo) {
+        String query = "\"" + UPLOADED_AT_TAG + "\" > '" + UPLOADED_AT_FORMAT.format(after) + "' AND \""
+                + UPLOADED_AT_TAG + "\" <= '" + UPLOADED_AT_FORMAT.format(upTo) + "'";
+        var result = new ArrayList<BlobRef>();
+
+        try {
+            Map<String, Set<String>> taggedByDirectory = new TreeMap<>();
+            for (TaggedBlobItem item : container.findBlobsByTags(new FindBlobsOptions(query), null, Context.NONE)) {
+                String name = item.getName();
+                if (!name.startsWith(inboxPrefix)) continue;
+                taggedByDirectory.computeIfAbsent(name.substring(0, name.lastIndexOf('/') + 1), k -> new HashSet<>())
+                        .add(name);
+            }
+
+            for (Map.Entry<String, Set<String>> directory : taggedByDirectory.entrySet()) {
+                ListBlobsOptions options = new ListBlobsOptions().setPrefix(directory.getKey());
+                for (BlobItem item : container.listBlobs(options, null)) {
+                    if (item.getProperties() == null || !directory.getValue().contains(item.getName())) continue;
+
+                    var lastModified = item.getProperties().getLastModified();
+                    Long size = item.getProperties().getContentLength();
+                    if (lastModified != null) {
+                        result.add(new BlobRef(item.getName(), item.getProperties().getETag(), lastModified,
+                                size == null ? -1 : size));
+                    }
+                }
             }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to find inbox blobs by tag: " + query, e);
         }
         return result;
     }
@@ -62,6 +132,40 @@ public class AzureBlobStorageAdapter implements BlobStoragePort {
         }
     }
 
+    @Override
+    public ByteBuffer downloadContent(BlobRef blob) {
+        if (!rangedDownload.appliesTo(blob.size())) {
+            return ByteBuffer.wrap(download(blob.name()));
+        }
+        if (blob.size() > Integer.MAX_VALUE) {
+            throw new InfrastructureException("Blob too large to map (" + blob.size() + " bytes): " + blob.name());
+        }
+
+        Path spool = null;
+        try {
+            spool = Files.createTempFile(rangedDownload.spoolDirectory(), "blob-", ".spool");
+            try (RandomAccessFile file = new RandomAccessFile(spool.toFile(), "rw")) {
+                file.setLength(blob.size());
+            }
+
+            BlobDownloadToFileOptions options = new BlobDownloadToFileOptions(spool.toString())
+                    .setParallelTransferOptions(new ParallelTransferOptions()
+                            .setBlockSizeLong(rangedDownload.blockSizeBytes())
+                            .setMaxConcurrency(rangedDownload.concurrency()))
+                    .setRequestConditions(new BlobRequestConditions().setIfMatch(blob.etag()))
+                    .setOpenOptions(Set.of(StandardOpenOption.WRITE));
+            container.getBlobClient(blob.name()).downloadToFileWithResponse(options, null, Context.NONE);
+
+            try (FileChannel channel = FileChannel.open(spool, StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to download blob with ranged requests: " + blob.name(), e);
+        } finally {
+            deleteSpool(spool);
+        }
+    }
+
     @Override
     public void moveToProcessed(String inboxBlobName) {
         moveReplacingPrefix(inboxBlobName, processedPrefix);
@@ -72,6 +176,58 @@ public class AzureBlobStorageAdapter implements BlobStoragePort {
         moveReplacingPrefix(inboxBlobName, errorPrefix);
     }
 
+    @Override
+    public void writeRejectReport(String inboxBlobName, byte[] content) {
+        if (!inboxBlobName.startsWith(inboxPrefix)) {
+            throw new InfrastructureException("Blob is not under inbox prefix: " + inboxBlobName);
+        }
+
+        String reportBlobName = processedPrefix + inboxBlobName.substring(inboxPrefix.length()) + REJECTS_SUFFIX;
+        try {
+            container.getBlobClient(reportBlobName).upload(BinaryData.fromBytes(content), true);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to write reject report: " + reportBlobName, e);
+        }
+    }
+
+    @Override
+    public List<String> listProcessedCnpjs() {
+        var result = new ArrayList<String>();
+        try {
+            ListBlobsOptions options = new ListBlobsOptions().setPrefix(processedPrefix);
+            for (BlobItem item : container.listBlobsByHierarchy("/", options, null)) {
+                if (!Boolean.TRUE.equals(item.isPrefix())) continue;
+
+                String cnpj = item.getName().substring(processedPrefix.length());
+                result.add(cnpj.endsWith("/") ? cnpj.substring(0, cnpj.length() - 1) : cnpj);
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to list processed pharmacies: " + processedPrefix, e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<BlobRef> listProcessedBlobs(String cnpj) {
+        var result = new ArrayList<BlobRef>();
+        try {
+            ListBlobsOptions options = new ListBlobsOptions().setPrefix(processedPrefix + cnpj + "/");
+            for (BlobItem item : container.listBlobs(options, null)) {
+                if (item.getProperties() == null || item.getName().endsWith(REJECTS_SUFFIX)) continue;
+
+                var lastModified = item.getProperties().getLastModified();
+                Long size = item.getProperties().getContentLength();
+                if (lastModified != null) {
+                    result.add(new BlobRef(item.getName(), item.getProperties().getETag(), lastModified,
+                            size == null ? -1 : size));
+                }
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to list processed blobs: cnpj=" + cnpj, e);
+        }
+        return result;
+    }
+
     private void moveReplacingPrefix(String inboxBlobName, String targetPrefix) {
         if (!inboxBlobName.startsWith(inboxPrefix)) {
             throw new InfrastructureException("Blob is not under inbox prefix: " + inboxBlobName);
@@ -105,6 +261,15 @@ public class AzureBlobStorageAdapter implements BlobStoragePort {
         }
     }
 
+    private void deleteSpool(Path spool) {
+        if (spool == null) return;
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            LOGGER.warning("Failed to delete spool file " + spool + ": " + e.getMessage());
+        }
+    }
+
     private String normalizePrefix(String prefix) {
         if (prefix == null || prefix.isBlank()) return "";
         return prefix.endsWith("/") ? prefix : prefix + "/";
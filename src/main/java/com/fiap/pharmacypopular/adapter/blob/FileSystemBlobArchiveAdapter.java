@@ -0,0 +1,173 @@
+package com.fiap.pharmacypopular.adapter.blob;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class FileSystemBlobArchiveAdapter implements BlobArchivePort {
+
+    private static final String BUNDLE_SUFFIX = ".bundle";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final Path root;
+    private final String processedPrefix;
+    private final String errorPrefix;
+    private final String archivePrefix;
+
+    public FileSystemBlobArchiveAdapter(Path root, String processedPrefix, String errorPrefix, String archivePrefix) {
+        this.root = root.toAbsolutePath().normalize();
+        this.processedPrefix = normalizePrefix(processedPrefix);
+        this.errorPrefix = normalizePrefix(errorPrefix);
+        this.archivePrefix = normalizePrefix(archivePrefix);
+    }
+
+    @Override
+    public List<ArchivableBlob> listArchivable(Area area, OffsetDateTime modifiedBefore) {
+        String prefix = area == Area.PROCESSED ? processedPrefix : errorPrefix;
+        Path dir = resolve(prefix);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        var result = new ArrayList<ArchivableBlob>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                OffsetDateTime lastModified = attributes.lastModifiedTime().toInstant().atOffset(ZoneOffset.UTC);
+                if (!lastModified.isBefore(modifiedBefore)) continue;
+
+                String name = blobName(file);
+                String relative = name.substring(prefix.length());
+                int slash = relative.indexOf('/');
+                if (slash <= 0) continue;
+
+                result.add(new ArchivableBlob(name, relative.substring(0, slash), lastModified, attributes.size()));
+            }
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to list local archivable blobs: " + dir, e);
+        }
+        return result;
+    }
+
+    @Override
+    public InputStream open(String blobName) {
+        try {
+            return Files.newInputStream(resolve(blobName));
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to read local blob: " + blobName, e);
+        }
+    }
+
+    @Override
+    public void delete(String blobName) {
+        try {
+            Files.deleteIfExists(resolve(blobName));
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to delete local blob: " + blobName, e);
+        }
+    }
+
+    @Override
+    public OutputStream openBundle(String bundleKey) {
+        Path target = resolve(archivePrefix + bundleKey + BUNDLE_SUFFIX);
+        try {
+            Files.createDirectories(target.getParent());
+            return Files.newOutputStream(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to create local bundle: " + target, e);
+        }
+    }
+
+    @Override
+    public void writeBundleIndex(String bundleKey, byte[] index) {
+        Path target = resolve(archivePrefix + bundleKey + INDEX_SUFFIX);
+        try {
+            Path tmp = Files.createTempFile(target.getParent(), "index-", ".tmp");
+            Files.write(tmp, index);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to write local bundle index: " + target, e);
+        }
+    }
+
+    @Override
+    public List<String> listBundles(String bundleKeyPrefix) {
+        String fullPrefix = archivePrefix + bundleKeyPrefix;
+        Path dir = resolve(fullPrefix.substring(0, Math.max(0, fullPrefix.lastIndexOf('/'))));
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(this::blobName)
+                    .filter(name -> name.startsWith(fullPrefix) && name.endsWith(INDEX_SUFFIX))
+                    .map(name -> name.substring(archivePrefix.length(), name.length() - INDEX_SUFFIX.length()))
+                    .toList();
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to list local bundles: " + fullPrefix, e);
+        }
+    }
+
+    @Override
+    public Optional<byte[]> readBundleIndex(String bundleKey) {
+        Path index = resolve(archivePrefix + bundleKey + INDEX_SUFFIX);
+        if (!Files.exists(index)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Files.readAllBytes(index));
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to read local bundle index: " + index, e);
+        }
+    }
+
+    @Override
+    public byte[] readBundleRange(String bundleKey, long offset, long length) {
+        Path bundle = resolve(archivePrefix + bundleKey + BUNDLE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(bundle, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(length));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of bundle at " + (offset + buffer.position()));
+                }
+            }
+            return buffer.array();
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to read local bundle range: " + bundle + " offset=" + offset
+                    + " length=" + length, e);
+        }
+    }
+
+    private String blobName(Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private Path resolve(String blobName) {
+        Path path = root.resolve(blobName).normalize();
+        if (!path.startsWith(root)) {
+            throw new InfrastructureException("Blob name escapes local root: " + blobName);
+        }
+        return path;
+    }
+
+    private String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) return "";
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+}
@@ -0,0 +1,183 @@
+package com.fiap.pharmacypopular.adapter.blob;
+
+import com.fiap.pharmacypopular.adapter.exception.DestinationAlreadyExistsException;
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class FileSystemBlobStorageAdapter implements BlobStoragePort {
+
+    private static final String REJECTS_SUFFIX = ".rejects.csv";
+
+    private final Path root;
+    private final String inboxPrefix;
+    private final String processedPrefix;
+    private final String errorPrefix;
+
+    public FileSystemBlobStorageAdapter(Path root, String inboxPrefix, String processedPrefix, String errorPrefix) {
+        this.root = root.toAbsolutePath().normalize();
+        this.inboxPrefix = normalizePrefix(inboxPrefix);
+        this.processedPrefix = normalizePrefix(processedPrefix);
+        this.errorPrefix = normalizePrefix(errorPrefix);
+    }
+
+    @Override
+    public List<BlobRef> listInboxBlobs() {
+        Path inbox = resolve(inboxPrefix);
+        if (!Files.isDirectory(inbox)) {
+            return List.of();
+        }
+
+        var result = new ArrayList<BlobRef>();
+        try (Stream<Path> files = Files.walk(inbox)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                result.add(toRef(file));
+            }
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to list local inbox: " + inbox, e);
+        }
+        return result;
+    }
+
+    @Override
+    public List<BlobRef> listInboxBlobsUploadedBetween(OffsetDateTime after, OffsetDateTime upTo) {
+        return listInboxBlobs().stream()
+                .filter(b -> b.lastModified().isAfter(after) && !b.lastModified().isAfter(upTo))
+                .toList();
+    }
+
+    @Override
+    public byte[] download(String blobName) {
+        try {
+            return Files.readAllBytes(resolve(blobName));
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to read local blob: " + blobName, e);
+        }
+    }
+
+    @Override
+    public ByteBuffer downloadContent(BlobRef blob) {
+        try (FileChannel channel = FileChannel.open(resolve(blob.name()), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to map local blob: " + blob.name(), e);
+        }
+    }
+
+    @Override
+    public void moveToProcessed(String inboxBlobName) {
+        moveReplacingPrefix(inboxBlobName, processedPrefix);
+    }
+
+    @Override
+    public void moveToError(String inboxBlobName) {
+        moveReplacingPrefix(inboxBlobName, errorPrefix);
+    }
+
+    @Override
+    public void writeRejectReport(String inboxBlobName, byte[] content) {
+        String reportBlobName = processedPrefix + relativeToInbox(inboxBlobName) + REJECTS_SUFFIX;
+        try {
+            Path target = resolve(reportBlobName);
+            Files.createDirectories(target.getParent());
+            Files.write(target, content);
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to write local reject report: " + reportBlobName, e);
+        }
+    }
+
+    @Override
+    public List<String> listProcessedCnpjs() {
+        Path processed = resolve(processedPrefix);
+        if (!Files.isDirectory(processed)) {
+            return List.of();
+        }
+
+        try (Stream<Path> dirs = Files.list(processed)) {
+            return dirs.filter(Files::isDirectory)
+                    .map(dir -> dir.getFileName().toString())
+                    .toList();
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to list local processed pharmacies: " + processed, e);
+        }
+    }
+
+    @Override
+    public List<BlobRef> listProcessedBlobs(String cnpj) {
+        Path dir = resolve(processedPrefix + cnpj);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        var result = new ArrayList<BlobRef>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (file.getFileName().toString().endsWith(REJECTS_SUFFIX)) continue;
+                result.add(toRef(file));
+            }
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to list local processed blobs: cnpj=" + cnpj, e);
+        }
+        return result;
+    }
+
+    private void moveReplacingPrefix(String inboxBlobName, String targetPrefix) {
+        String targetBlobName = targetPrefix + relativeToInbox(inboxBlobName);
+        Path source = resolve(inboxBlobName);
+        Path target = resolve(targetBlobName);
+
+        if (Files.exists(target)) {
+            throw new DestinationAlreadyExistsException("Target blob already exists: " + targetBlobName);
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(source, target);
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to move blob from " + inboxBlobName + " to " + targetBlobName, e);
+        }
+    }
+
+    private String relativeToInbox(String inboxBlobName) {
+        if (!inboxBlobName.startsWith(inboxPrefix)) {
+            throw new InfrastructureException("Blob is not under inbox prefix: " + inboxBlobName);
+        }
+        return inboxBlobName.substring(inboxPrefix.length());
+    }
+
+    private BlobRef toRef(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long modifiedMillis = attributes.lastModifiedTime().toMillis();
+        String etag = "\"0x" + Long.toHexString(modifiedMillis) + Long.toHexString(attributes.size()) + "\"";
+        OffsetDateTime lastModified = attributes.lastModifiedTime().toInstant().atOffset(ZoneOffset.UTC);
+        return new BlobRef(blobName(file), etag, lastModified, attributes.size());
+    }
+
+    private String blobName(Path file) {
+        return root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+    }
+
+    private Path resolve(String blobName) {
+        Path path = root.resolve(blobName).normalize();
+        if (!path.startsWith(root)) {
+            throw new InfrastructureException("Blob name escapes local root: " + blobName);
+        }
+        return path;
+    }
+
+    private String normalizePrefix(String prefix) {
+        if (prefix == null || prefix.isBlank()) return "";
+        return prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+}
@@ -0,0 +1,19 @@
+package com.fiap.pharmacypopular.adapter.blob;
+
+import java.nio.file.Path;
+
+public record RangedDownloadSettings(
+        long thresholdBytes,
+        long blockSizeBytes,
+        int concurrency,
+        Path spoolDirectory
+) {
+
+    public static RangedDownloadSettings disabled() {
+        return new RangedDownloadSettings(0, 0, 1, null);
+    }
+
+    public boolean appliesTo(long blobSize) {
+        return thresholdBytes > 0 && blobSize >= thresholdBytes;
+    }
+}
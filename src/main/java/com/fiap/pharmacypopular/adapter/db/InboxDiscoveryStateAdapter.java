@@ -0,0 +1,62 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.InboxDiscoveryState;
+import com.fiap.pharmacypopular.domain.port.InboxDiscoveryStatePort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public class InboxDiscoveryStateAdapter implements InboxDiscoveryStatePort {
+
+    private final DataSource dataSource;
+
+    public InboxDiscoveryStateAdapter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Optional<InboxDiscoveryState> load(String source) {
+        final String sql = "SELECT high_water_mark, last_full_listing_at FROM inbox_discovery_state WHERE source = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, source);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return Optional.empty();
+                return Optional.of(new InboxDiscoveryState(
+                        rs.getObject("high_water_mark", OffsetDateTime.class),
+                        rs.getObject("last_full_listing_at", OffsetDateTime.class)
+                ));
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to load inbox discovery state: " + source, e);
+        }
+    }
+
+    @Override
+    public void save(String source, InboxDiscoveryState state) {
+        final String sql = "INSERT INTO inbox_discovery_state (source, high_water_mark, last_full_listing_at, updated_at) " +
+                "VALUES (?, ?, ?, now()) ON CONFLICT (source) DO UPDATE SET " +
+                "high_water_mark = EXCLUDED.high_water_mark, last_full_listing_at = EXCLUDED.last_full_listing_at, " +
+                "updated_at = EXCLUDED.updated_at";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, source);
+            ps.setObject(2, state.highWaterMark());
+            ps.setObject(3, state.lastFullListingAt());
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to save inbox discovery state: " + source, e);
+        }
+    }
+}
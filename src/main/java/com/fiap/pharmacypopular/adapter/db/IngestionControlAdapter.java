@@ -1,6 +1,8 @@
 package com.fiap.pharmacypopular.adapter.db;
 
 import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+import com.fiap.pharmacypopular.domain.model.FileProfileSummary;
 import com.fiap.pharmacypopular.domain.model.IngestionControlModel;
 import com.fiap.pharmacypopular.domain.port.IngestionControlRepositoryPort;
 import com.fiap.pharmacypopular.domain.model.IngestStatus;
@@ -11,23 +13,71 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public class IngestionControlAdapter implements IngestionControlRepositoryPort {
 
+    static final String PROFILE_COLUMNS = "file_size_bytes = ?, row_count = ?, accepted_rows = ?, rejected_rows = ?, " +
+            "distinct_medicines = ?, changed_rows = ?, download_ms = ?, parse_ms = ?, resolve_ms = ?, upsert_ms = ?";
+
+    private static final String FIND_BY_BLOB_SQL = """
+                SELECT c.id, c.status, COALESCE(c.committed_rows, 0) AS committed_rows, c.committed_digest
+                FROM file_ingestion_key k
+                JOIN file_ingestion_control c ON c.id = k.ingestion_id AND c.received_at = k.received_at
+                WHERE k.blob_path = ? AND k.etag = ?
+            """;
+
+    private static final String START_PROCESSING_SQL = """
+                WITH claimed AS (
+                    INSERT INTO file_ingestion_key (blob_path, etag, ingestion_id, received_at)
+                    VALUES (?, ?, nextval('file_ingestion_id_seq'), now())
+                    ON CONFLICT (blob_path, etag) DO NOTHING
+                    RETURNING blob_path, etag, ingestion_id, received_at
+                )
+                INSERT INTO file_ingestion_control (id, blob_path, etag, file_name, cnpj, reference_date, status, received_at)
+                SELECT ingestion_id, blob_path, etag, ?, ?, ?, 'PROCESSING', received_at FROM claimed
+                RETURNING id
+            """;
+
     private final DataSource dataSource;
+    private final ReadReplicaRouter reads;
 
     public IngestionControlAdapter(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(ReadReplicaRouter.primaryOnly(dataSource));
+    }
+
+    public IngestionControlAdapter(ReadReplicaRouter reads) {
+        this.dataSource = reads.primary();
+        this.reads = reads;
     }
 
     @Override
     public Optional<IngestionControlModel> findByBlobPathAndEtag(String blobPath, String etag) {
-        final String sql = "SELECT id, status FROM file_ingestion_control  WHERE blob_path = ? AND etag = ? LIMIT 1";
+        try {
+            return reads.read("findByBlobPathAndEtag", c -> selectByBlobPathAndEtag(c, blobPath, etag),
+                    existing -> existing.isPresent() && existing.get().status() == IngestStatus.PROCESSING);
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to query ingestion control by blob_path and etag", e);
+        }
+    }
 
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    @Override
+    public Optional<IngestionControlModel> findByBlobPathAndEtagConsistent(String blobPath, String etag) {
+        try {
+            return reads.onPrimary(c -> selectByBlobPathAndEtag(c, blobPath, etag));
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to query ingestion control by blob_path and etag", e);
+        }
+    }
+
+    private static Optional<IngestionControlModel> selectByBlobPathAndEtag(Connection c, String blobPath, String etag)
+            throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(FIND_BY_BLOB_SQL)) {
 
             ps.setString(1, blobPath);
             ps.setString(2, etag);
@@ -38,20 +88,18 @@ public class IngestionControlAdapter implements IngestionControlRepositoryPort {
                 }
                 long id = rs.getLong("id");
                 IngestStatus status = IngestStatus.valueOf(rs.getString("status"));
-                return Optional.of(new IngestionControlModel(id, status));
+                int committedRows = rs.getInt("committed_rows");
+                long committedDigest = rs.getLong("committed_digest");
+                return Optional.of(new IngestionControlModel(id, status, committedRows,
+                        rs.wasNull() ? null : committedDigest));
             }
-        } catch (SQLException e) {
-            throw new InfrastructureException("Failed to query ingestion control by blob_path and etag", e);
         }
     }
 
     @Override
     public Optional<Long> startProcessing(String blobPath, String etag, String fileName, String cnpj, LocalDate referenceDate) {
-        final String sql = "INSERT INTO file_ingestion_control (blob_path, etag, file_name, cnpj, reference_date, status, received_at) " +
-                "VALUES (?, ?, ?, ?, ?, 'PROCESSING', now()) ON CONFLICT (blob_path, etag) DO NOTHING RETURNING id";
-
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+             PreparedStatement ps = c.prepareStatement(START_PROCESSING_SQL)) {
 
             ps.setString(1, blobPath);
             ps.setString(2, etag);
@@ -86,8 +134,25 @@ public class IngestionControlAdapter implements IngestionControlRepositoryPort {
     }
 
     @Override
-    public void markFailed(long id, String errorReason) {
-        final String sql = "UPDATE file_ingestion_control SET status = 'FAILED', processed_at = now(), error_reason = ? WHERE id = ?";
+    public void markProcessed(long id, FileProcessingProfile profile) {
+        final String sql = "UPDATE file_ingestion_control SET status = 'PROCESSED', processed_at = now(), error_reason = NULL, " +
+                PROFILE_COLUMNS + " WHERE id = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            int next = bindProfile(ps, 1, profile);
+            ps.setLong(next, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to mark ingestion as PROCESSED (id=" + id + ")", e);
+        }
+    }
+
+    @Override
+    public void markFailed(long id, String errorReason, FileProcessingProfile profile) {
+        final String sql = "UPDATE file_ingestion_control SET status = 'FAILED', processed_at = now(), error_reason = ?, " +
+                PROFILE_COLUMNS + " WHERE id = ?";
 
         String reason = (errorReason == null) ? "Unknown error" : errorReason;
         if (reason.length() > 1000) reason = reason.substring(0, 1000);
@@ -96,11 +161,89 @@ public class IngestionControlAdapter implements IngestionControlRepositoryPort {
              PreparedStatement ps = c.prepareStatement(sql)) {
 
             ps.setString(1, reason);
-            ps.setLong(2, id);
+            int next = bindProfile(ps, 2, profile);
+            ps.setLong(next, id);
             ps.executeUpdate();
 
         } catch (SQLException e) {
             throw new InfrastructureException("Failed to mark ingestion as FAILED (id=" + id + ")", e);
         }
     }
+
+    @Override
+    public List<FileProfileSummary> findSlowestFiles(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return findProfiles("processed_at - received_at", from, to, limit);
+    }
+
+    @Override
+    public List<FileProfileSummary> findLargestFiles(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return findProfiles("file_size_bytes", from, to, limit);
+    }
+
+    private List<FileProfileSummary> findProfiles(String orderBy, OffsetDateTime from, OffsetDateTime to, int limit) {
+        final String sql = "SELECT id, blob_path, cnpj, status, received_at, " +
+                "(EXTRACT(EPOCH FROM (processed_at - received_at)) * 1000)::bigint AS total_ms, " +
+                "file_size_bytes, row_count, accepted_rows, rejected_rows, distinct_medicines, changed_rows, " +
+                "download_ms, parse_ms, resolve_ms, upsert_ms " +
+                "FROM file_ingestion_control WHERE received_at >= ? AND received_at < ? AND processed_at IS NOT NULL " +
+                "ORDER BY " + orderBy + " DESC NULLS LAST LIMIT ?";
+
+        try {
+            return reads.read("findProfiles", c -> selectProfiles(c, sql, from, to, limit));
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to query ingestion profiles ordered by " + orderBy, e);
+        }
+    }
+
+    private static List<FileProfileSummary> selectProfiles(Connection c, String sql, OffsetDateTime from,
+                                                           OffsetDateTime to, int limit) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            ps.setInt(3, limit);
+
+            List<FileProfileSummary> result = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    FileProcessingProfile profile = new FileProcessingProfile(
+                            rs.getObject("file_size_bytes", Long.class),
+                            rs.getObject("row_count", Integer.class),
+                            rs.getObject("accepted_rows", Integer.class),
+                            rs.getObject("rejected_rows", Integer.class),
+                            rs.getObject("distinct_medicines", Integer.class),
+                            rs.getObject("changed_rows", Integer.class),
+                            rs.getObject("download_ms", Long.class),
+                            rs.getObject("parse_ms", Long.class),
+                            rs.getObject("resolve_ms", Long.class),
+                            rs.getObject("upsert_ms", Long.class)
+                    );
+                    result.add(new FileProfileSummary(
+                            rs.getLong("id"),
+                            rs.getString("blob_path"),
+                            rs.getString("cnpj"),
+                            IngestStatus.valueOf(rs.getString("status")),
+                            rs.getObject("received_at", OffsetDateTime.class),
+                            rs.getObject("total_ms", Long.class),
+                            profile
+                    ));
+                }
+            }
+            return result;
+        }
+    }
+
+    static int bindProfile(PreparedStatement ps, int index, FileProcessingProfile p) throws SQLException {
+        ps.setObject(index++, p.fileSizeBytes(), Types.BIGINT);
+        ps.setObject(index++, p.rowCount(), Types.INTEGER);
+        ps.setObject(index++, p.acceptedRows(), Types.INTEGER);
+        ps.setObject(index++, p.rejectedRows(), Types.INTEGER);
+        ps.setObject(index++, p.distinctMedicines(), Types.INTEGER);
+        ps.setObject(index++, p.changedRows(), Types.INTEGER);
+        ps.setObject(index++, p.downloadMillis(), Types.BIGINT);
+        ps.setObject(index++, p.parseMillis(), Types.BIGINT);
+        ps.setObject(index++, p.resolveMillis(), Types.BIGINT);
+        ps.setObject(index++, p.upsertMillis(), Types.BIGINT);
+        return index;
+    }
 }
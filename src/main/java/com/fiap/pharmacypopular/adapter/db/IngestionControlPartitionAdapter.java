@@ -0,0 +1,63 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.port.IngestionControlPartitionPort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+public class IngestionControlPartitionAdapter implements IngestionControlPartitionPort {
+
+    private final DataSource dataSource;
+
+    public IngestionControlPartitionAdapter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<String> ensurePartitions(YearMonth from, YearMonth through) {
+        final String sql = "SELECT file_ingestion_control_ensure_partitions(?, ?) AS partition_name";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(from.atDay(1)));
+            ps.setDate(2, Date.valueOf(through.atDay(1)));
+            return partitionNames(ps);
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to create ingestion control partitions from " + from
+                    + " through " + through, e);
+        }
+    }
+
+    @Override
+    public List<String> dropPartitionsBefore(YearMonth cutoff) {
+        final String sql = "SELECT file_ingestion_control_drop_partitions(?) AS partition_name";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setDate(1, Date.valueOf(cutoff.atDay(1)));
+            return partitionNames(ps);
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to drop ingestion control partitions before " + cutoff, e);
+        }
+    }
+
+    private static List<String> partitionNames(PreparedStatement ps) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                names.add(rs.getString("partition_name"));
+            }
+        }
+        return names;
+    }
+}
@@ -4,36 +4,67 @@ import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
 import com.fiap.pharmacypopular.domain.port.MedicationRepositoryPort;
 
 import javax.sql.DataSource;
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 public class MedicationRepositoryAdapter implements MedicationRepositoryPort {
 
-    private final DataSource dataSource;
+    private final ReadReplicaRouter reads;
 
     public MedicationRepositoryAdapter(DataSource dataSource) {
-        this.dataSource = dataSource;
+        this(ReadReplicaRouter.primaryOnly(dataSource));
+    }
+
+    public MedicationRepositoryAdapter(ReadReplicaRouter reads) {
+        this.reads = reads;
     }
 
     @Override
     public Optional<String> findCodeByName(String medicineName) {
         final String sql = "SELECT medicine_code FROM medication_name WHERE medicine_name = ? LIMIT 1";
 
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        try {
+            return reads.read("findCodeByName", c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
 
-            ps.setString(1, medicineName);
+                    ps.setString(1, medicineName);
 
-            try (ResultSet rs = ps.executeQuery()) {
-                if (!rs.next()) return Optional.empty();
-                return Optional.of(rs.getString("medicine_code"));
-            }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next()) return Optional.<String>empty();
+                        return Optional.of(rs.getString("medicine_code"));
+                    }
+                }
+            }, Optional::isEmpty);
 
         } catch (SQLException e) {
             throw new InfrastructureException("Failed to query medication by name: " + medicineName, e);
         }
     }
+
+    @Override
+    public Map<String, String> findAllCodesByName() {
+        final String sql = "SELECT medicine_name, medicine_code FROM medication_name";
+
+        try {
+            return reads.read("findAllCodesByName", c -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+
+                    Map<String, String> codes = new HashMap<>();
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            codes.putIfAbsent(rs.getString("medicine_name"), rs.getString("medicine_code"));
+                        }
+                    }
+                    return codes;
+                }
+            });
+
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to load medication codes", e);
+        }
+    }
 }
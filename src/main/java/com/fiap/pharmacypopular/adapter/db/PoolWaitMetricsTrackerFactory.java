@@ -0,0 +1,30 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.resilience.BackendPressureMonitor;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+public class PoolWaitMetricsTrackerFactory implements MetricsTrackerFactory {
+
+    private final BackendPressureMonitor monitor;
+
+    public PoolWaitMetricsTrackerFactory(BackendPressureMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                monitor.recordPoolWait(elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                monitor.recordPoolTimeout();
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+public class ReadReplicaRouter {
+
+    private static final Logger LOGGER = Logger.getLogger("ReadReplicaRouter");
+
+    @FunctionalInterface
+    public interface Query<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long cooldownNanos;
+    private volatile long replicaDownUntil;
+
+    public ReadReplicaRouter(DataSource primary, DataSource replica, Duration cooldown) {
+        this.primary = primary;
+        this.replica = replica;
+        this.cooldownNanos = cooldown.toNanos();
+        this.replicaDownUntil = System.nanoTime();
+    }
+
+    public static ReadReplicaRouter primaryOnly(DataSource primary) {
+        return new ReadReplicaRouter(primary, null, Duration.ZERO);
+    }
+
+    public DataSource primary() {
+        return primary;
+    }
+
+    public <T> T onPrimary(Query<T> query) throws SQLException {
+        try (Connection c = primary.getConnection()) {
+            return query.run(c);
+        }
+    }
+
+    public <T> T read(String operation, Query<T> query) throws SQLException {
+        return read(operation, query, result -> false);
+    }
+
+    public <T> T read(String operation, Query<T> query, Predicate<T> confirmOnPrimary) throws SQLException {
+        if (!replicaAvailable()) {
+            return onPrimary(query);
+        }
+
+        T result;
+        try (Connection c = replica.getConnection()) {
+            result = query.run(c);
+        } catch (SQLException e) {
+            replicaDownUntil = System.nanoTime() + cooldownNanos;
+            LOGGER.warning("Replica read failed, falling back to primary: operation=" + operation
+                    + " cooldownMs=" + cooldownNanos / 1_000_000 + " reason=" + e.getMessage());
+            return onPrimary(query);
+        }
+
+        return confirmOnPrimary.test(result) ? onPrimary(query) : result;
+    }
+
+    private boolean replicaAvailable() {
+        return replica != null && System.nanoTime() - replicaDownUntil >= 0;
+    }
+}
@@ -0,0 +1,196 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.ReplayJob;
+import com.fiap.pharmacypopular.domain.model.ReplayJobStatus;
+import com.fiap.pharmacypopular.domain.port.ReplayJobPort;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class ReplayJobAdapter implements ReplayJobPort {
+
+    private static final String COLUMNS = "id, cnpjs, targets, last_cnpj, status, attempts, requested_at, started_at, finished_at, " +
+            "pharmacies, replayed, skipped, failed, replayed_rows, elapsed_ms, error_reason";
+
+    private static final String CLAIM_NEXT_SQL = """
+                UPDATE replay_job
+                SET status = 'RUNNING', started_at = COALESCE(started_at, now()), heartbeat_at = now(),
+                    attempts = attempts + 1
+                WHERE id = (
+                    SELECT id FROM replay_job
+                    WHERE status = 'QUEUED'
+                       OR (status = 'RUNNING'
+                           AND COALESCE(heartbeat_at, started_at) < now() - (? * INTERVAL '1 second'))
+                    ORDER BY id
+                    LIMIT 1
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING\s""" + COLUMNS;
+
+    private final DataSource dataSource;
+
+    public ReplayJobAdapter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public long enqueue(List<String> cnpjs) {
+        final String sql = "INSERT INTO replay_job (cnpjs, status, requested_at) VALUES (?, 'QUEUED', now()) RETURNING id";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setArray(1, cnpjs == null || cnpjs.isEmpty() ? null : c.createArrayOf("text", cnpjs.toArray()));
+
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong("id");
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to enqueue replay job", e);
+        }
+    }
+
+    @Override
+    public Optional<ReplayJob> find(long id) {
+        final String sql = "SELECT " + COLUMNS + " FROM replay_job WHERE id = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, id);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(toJob(rs)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to query replay job (id=" + id + ")", e);
+        }
+    }
+
+    @Override
+    public Optional<ReplayJob> claimNext(Duration staleAfter) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(CLAIM_NEXT_SQL)) {
+
+            ps.setLong(1, staleAfter.toSeconds());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(toJob(rs)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to claim replay job", e);
+        }
+    }
+
+    @Override
+    public void start(long id, List<String> targets) {
+        final String sql = "UPDATE replay_job SET targets = ?, pharmacies = ?, replayed = 0, skipped = 0, failed = 0, " +
+                "replayed_rows = 0, elapsed_ms = 0 WHERE id = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setArray(1, c.createArrayOf("text", targets.toArray()));
+            ps.setInt(2, targets.size());
+            ps.setLong(3, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to store replay job targets (id=" + id + ")", e);
+        }
+    }
+
+    @Override
+    public void checkpoint(long id, String lastCnpj, int replayed, int skipped, int failed, long rows,
+                           long elapsedMillis) {
+        final String sql = "UPDATE replay_job SET last_cnpj = ?, replayed = ?, skipped = ?, failed = ?, " +
+                "replayed_rows = ?, elapsed_ms = ?, attempts = 0, heartbeat_at = now() WHERE id = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, lastCnpj);
+            ps.setInt(2, replayed);
+            ps.setInt(3, skipped);
+            ps.setInt(4, failed);
+            ps.setLong(5, rows);
+            ps.setLong(6, elapsedMillis);
+            ps.setLong(7, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to checkpoint replay job (id=" + id + ")", e);
+        }
+    }
+
+    @Override
+    public void requeue(long id) {
+        updateStatus(id, "UPDATE replay_job SET status = 'QUEUED' WHERE id = ?", "QUEUED");
+    }
+
+    @Override
+    public void complete(long id) {
+        updateStatus(id, "UPDATE replay_job SET status = 'DONE', finished_at = now(), error_reason = NULL WHERE id = ?",
+                "DONE");
+    }
+
+    @Override
+    public void fail(long id, String reason) {
+        final String sql = "UPDATE replay_job SET status = 'FAILED', finished_at = now(), error_reason = ? WHERE id = ?";
+
+        String errorReason = (reason == null) ? "Unknown error" : reason;
+        if (errorReason.length() > 1000) errorReason = errorReason.substring(0, 1000);
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setString(1, errorReason);
+            ps.setLong(2, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to mark replay job as FAILED (id=" + id + ")", e);
+        }
+    }
+
+    private void updateStatus(long id, String sql, String status) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to mark replay job as " + status + " (id=" + id + ")", e);
+        }
+    }
+
+    private static ReplayJob toJob(ResultSet rs) throws SQLException {
+        Array cnpjs = rs.getArray("cnpjs");
+        Array targets = rs.getArray("targets");
+        return new ReplayJob(
+                rs.getLong("id"),
+                cnpjs == null ? List.of() : List.of((String[]) cnpjs.getArray()),
+                targets == null ? null : List.of((String[]) targets.getArray()),
+                rs.getString("last_cnpj"),
+                ReplayJobStatus.valueOf(rs.getString("status")),
+                rs.getInt("attempts"),
+                rs.getObject("requested_at", OffsetDateTime.class),
+                rs.getObject("started_at", OffsetDateTime.class),
+                rs.getObject("finished_at", OffsetDateTime.class),
+                rs.getObject("pharmacies", Integer.class),
+                rs.getObject("replayed", Integer.class),
+                rs.getObject("skipped", Integer.class),
+                rs.getObject("failed", Integer.class),
+                rs.getObject("replayed_rows", Long.class),
+                rs.getObject("elapsed_ms", Long.class),
+                rs.getString("error_reason")
+        );
+    }
+}
@@ -0,0 +1,195 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger("SchemaMigrator");
+
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_SQL = "SELECT pg_advisory_lock(hashtext('schema_history'))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('schema_history'))";
+
+    private static final String HISTORY_DDL = """
+                CREATE TABLE IF NOT EXISTS schema_history (
+                    version INTEGER PRIMARY KEY,
+                    description TEXT NOT NULL,
+                    checksum BIGINT NOT NULL,
+                    applied_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+                    execution_ms BIGINT NOT NULL
+                )
+            """;
+
+    public record Migration(int version, String description, String script, long checksum) {}
+
+    private final DataSource dataSource;
+    private final String location;
+
+    public SchemaMigrator(DataSource dataSource) {
+        this(dataSource, "db/migration");
+    }
+
+    public SchemaMigrator(DataSource dataSource, String location) {
+        this.dataSource = dataSource;
+        this.location = location;
+    }
+
+    public List<Migration> migrate() {
+        List<Migration> available = loadMigrations();
+
+        try (Connection c = dataSource.getConnection()) {
+            try (Statement st = c.createStatement()) {
+                st.execute(HISTORY_DDL);
+                st.execute(LOCK_SQL);
+            }
+            try {
+                Map<Integer, Long> applied = appliedChecksums(c);
+                validate(available, applied);
+
+                List<Migration> executed = new ArrayList<>();
+                for (Migration m : available) {
+                    if (applied.containsKey(m.version())) continue;
+                    apply(c, m);
+                    executed.add(m);
+                }
+                LOGGER.info("Schema migration finished: applied=" + executed.size() + " current=" + currentVersion(available));
+                return executed;
+            } finally {
+                try (Statement st = c.createStatement()) {
+                    st.execute(UNLOCK_SQL);
+                }
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to migrate database schema", e);
+        }
+    }
+
+    private void apply(Connection c, Migration m) throws SQLException {
+        final String sql = "INSERT INTO schema_history (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+
+        long start = System.nanoTime();
+        c.setAutoCommit(false);
+        try (Statement st = c.createStatement();
+             PreparedStatement history = c.prepareStatement(sql)) {
+
+            st.execute(m.script());
+
+            history.setInt(1, m.version());
+            history.setString(2, m.description());
+            history.setLong(3, m.checksum());
+            history.setLong(4, (System.nanoTime() - start) / 1_000_000);
+            history.executeUpdate();
+
+            c.commit();
+            LOGGER.info("Applied migration: version=" + m.version() + " description=" + m.description()
+                    + " elapsedMs=" + (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            rollback(c);
+            throw new SQLException("Migration V" + m.version() + "__" + m.description() + " failed", e);
+        } finally {
+            c.setAutoCommit(true);
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection c) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+        try (Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_history")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void validate(List<Migration> available, Map<Integer, Long> applied) {
+        for (Migration m : available) {
+            Long checksum = applied.get(m.version());
+            if (checksum != null && checksum != m.checksum()) {
+                throw new InfrastructureException("Applied migration V" + m.version() + " was modified: expected checksum="
+                        + checksum + " actual=" + m.checksum());
+            }
+        }
+    }
+
+    private static int currentVersion(List<Migration> available) {
+        return available.isEmpty() ? 0 : available.get(available.size() - 1).version();
+    }
+
+    private List<Migration> loadMigrations() {
+        URL url = Thread.currentThread().getContextClassLoader().getResource(location);
+        if (url == null) {
+            throw new InfrastructureException("Migration location not found on classpath: " + location);
+        }
+
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try (FileSystem fs = FileSystems.newFileSystem(uri, Map.of())) {
+                    return readMigrations(fs.getPath(location));
+                }
+            }
+            return readMigrations(Path.of(uri));
+        } catch (IOException | URISyntaxException e) {
+            throw new InfrastructureException("Failed to load migrations from " + location, e);
+        }
+    }
+
+    private static List<Migration> readMigrations(Path dir) throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Matcher matcher = SCRIPT_NAME.matcher(file.getFileName().toString());
+                if (!matcher.matches()) continue;
+
+                byte[] content = Files.readAllBytes(file);
+                CRC32 crc = new CRC32();
+                crc.update(content);
+                migrations.add(new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2),
+                        new String(content, StandardCharsets.UTF_8), crc.getValue()));
+            }
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version() == migrations.get(i - 1).version()) {
+                throw new InfrastructureException("Duplicate migration version: V" + migrations.get(i).version());
+            }
+        }
+        return migrations;
+    }
+
+    private static void rollback(Connection c) {
+        try {
+            c.rollback();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to rollback migration", e);
+        }
+    }
+}
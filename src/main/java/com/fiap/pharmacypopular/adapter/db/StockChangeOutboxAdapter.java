@@ -0,0 +1,92 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+import com.fiap.pharmacypopular.domain.model.StockStatus;
+import com.fiap.pharmacypopular.domain.port.StockChangeOutboxPort;
+import com.fiap.pharmacypopular.domain.port.StockChangeSinkPort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class StockChangeOutboxAdapter implements StockChangeOutboxPort {
+
+    private static final Logger LOGGER = Logger.getLogger(StockChangeOutboxAdapter.class.getName());
+
+    private final DataSource dataSource;
+
+    public StockChangeOutboxAdapter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public int relayBatch(int batchSize, StockChangeSinkPort sink) {
+        final String selectSql = """
+                SELECT id, pharmacy_id, medicine_code, old_quantity, new_quantity, old_status, new_status, changed_at
+                FROM stock_change_outbox
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            """;
+        final String deleteSql = "DELETE FROM stock_change_outbox WHERE id = ANY(?)";
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement select = connection.prepareStatement(selectSql);
+                 PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+
+                select.setInt(1, batchSize);
+                List<StockChangeEvent> events = new ArrayList<>();
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        events.add(toEvent(rs));
+                    }
+                }
+                if (events.isEmpty()) {
+                    connection.commit();
+                    return 0;
+                }
+
+                sink.publish(events);
+
+                Long[] ids = events.stream().map(StockChangeEvent::id).toArray(Long[]::new);
+                delete.setArray(1, connection.createArrayOf("bigint", ids));
+                delete.executeUpdate();
+                connection.commit();
+                return events.size();
+
+            } catch (Exception ex) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Rollback failed after error", rollbackEx);
+                }
+                throw ex;
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to relay stock change events", e);
+        }
+    }
+
+    private static StockChangeEvent toEvent(ResultSet rs) throws SQLException {
+        String oldStatus = rs.getString("old_status");
+        return new StockChangeEvent(
+                rs.getLong("id"),
+                rs.getString("pharmacy_id"),
+                rs.getString("medicine_code"),
+                rs.getObject("old_quantity", Integer.class),
+                rs.getInt("new_quantity"),
+                oldStatus == null ? null : StockStatus.valueOf(oldStatus),
+                StockStatus.valueOf(rs.getString("new_status")),
+                rs.getObject("changed_at", OffsetDateTime.class));
+    }
+}
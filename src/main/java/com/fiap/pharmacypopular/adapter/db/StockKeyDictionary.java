@@ -0,0 +1,136 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.domain.model.StockEntry;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+class StockKeyDictionary {
+
+    private static final Logger LOGGER = Logger.getLogger(StockKeyDictionary.class.getName());
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+
+    private static final String LOAD_PHARMACIES_SQL = "SELECT id, cnpj FROM pharmacy_key";
+    private static final String LOAD_MEDICINES_SQL = "SELECT id, medicine_code FROM medicine_key";
+
+    private static final String CLAIM_PHARMACIES_SQL = """
+                WITH input AS (SELECT DISTINCT unnest(?::text[]) AS cnpj),
+                inserted AS (
+                    INSERT INTO pharmacy_key (cnpj)
+                    SELECT cnpj FROM input ORDER BY cnpj
+                    ON CONFLICT (cnpj) DO NOTHING
+                    RETURNING id, cnpj
+                )
+                SELECT id, cnpj FROM inserted
+                UNION ALL
+                SELECT k.id, k.cnpj FROM pharmacy_key k JOIN input i ON i.cnpj = k.cnpj
+            """;
+
+    private static final String CLAIM_MEDICINES_SQL = """
+                WITH input AS (SELECT DISTINCT unnest(?::text[]) AS medicine_code),
+                inserted AS (
+                    INSERT INTO medicine_key (medicine_code)
+                    SELECT medicine_code FROM input ORDER BY medicine_code
+                    ON CONFLICT (medicine_code) DO NOTHING
+                    RETURNING id, medicine_code
+                )
+                SELECT id, medicine_code FROM inserted
+                UNION ALL
+                SELECT k.id, k.medicine_code FROM medicine_key k JOIN input i ON i.medicine_code = k.medicine_code
+            """;
+
+    private final Map<String, Integer> pharmacies = new ConcurrentHashMap<>();
+    private final Map<String, Integer> medicines = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    void ensure(DataSource dataSource, List<StockEntry> rows) throws SQLException {
+        if (loaded && missing(rows, StockEntry::cnpj, pharmacies).isEmpty()
+                && missing(rows, StockEntry::medicineCode, medicines).isEmpty()) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            load(connection);
+            claim(connection, CLAIM_PHARMACIES_SQL, missing(rows, StockEntry::cnpj, pharmacies), pharmacies);
+            claim(connection, CLAIM_MEDICINES_SQL, missing(rows, StockEntry::medicineCode, medicines), medicines);
+        }
+    }
+
+    int pharmacyKey(String cnpj) {
+        return key(pharmacies, cnpj, "cnpj");
+    }
+
+    int medicineKey(String medicineCode) {
+        return key(medicines, medicineCode, "medicineCode");
+    }
+
+    private static int key(Map<String, Integer> dictionary, String value, String name) {
+        Integer key = dictionary.get(value);
+        if (key == null) {
+            throw new IllegalStateException("No surrogate key resolved for " + name + "=" + value);
+        }
+        return key;
+    }
+
+    private synchronized void load(Connection connection) throws SQLException {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        loadInto(connection, LOAD_PHARMACIES_SQL, pharmacies);
+        loadInto(connection, LOAD_MEDICINES_SQL, medicines);
+        loaded = true;
+        LOGGER.info("Stock key dictionaries loaded: pharmacies=" + pharmacies.size() + " medicines=" + medicines.size()
+                + " elapsedMs=" + (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void loadInto(Connection connection, String sql, Map<String, Integer> dictionary)
+            throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                dictionary.put(rs.getString(2), rs.getInt(1));
+            }
+        }
+    }
+
+    private static void claim(Connection connection, String sql, Set<String> missing, Map<String, Integer> dictionary)
+            throws SQLException {
+        for (int attempt = 1; !missing.isEmpty(); attempt++) {
+            if (attempt > MAX_CLAIM_ATTEMPTS) {
+                throw new SQLException("Could not resolve surrogate keys after " + MAX_CLAIM_ATTEMPTS
+                        + " attempts: " + missing);
+            }
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setArray(1, connection.createArrayOf("text", missing.toArray()));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        dictionary.put(rs.getString(2), rs.getInt(1));
+                        missing.remove(rs.getString(2));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> missing(List<StockEntry> rows, Function<StockEntry, String> value,
+                                       Map<String, Integer> dictionary) {
+        return rows.stream()
+                .filter(Objects::nonNull)
+                .map(value)
+                .filter(v -> v != null && !v.isBlank() && !dictionary.containsKey(v))
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -1,72 +1,460 @@
 package com.fiap.pharmacypopular.adapter.db;
 
 import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
 import com.fiap.pharmacypopular.domain.model.StockEntry;
+import com.fiap.pharmacypopular.domain.model.StockFileBatch;
+import com.fiap.pharmacypopular.domain.model.StockFileBatchResult;
+import com.fiap.pharmacypopular.domain.model.StockStatus;
 import com.fiap.pharmacypopular.domain.port.StockRepositoryPort;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class StockRepositoryAdapter implements StockRepositoryPort {
 
     private static final Logger LOGGER = Logger.getLogger(StockRepositoryAdapter.class.getName());
+
+    private static final String INSERT_NEW_SQL = """
+                INSERT INTO pharmacy_medicine_stock_keyed (pharmacy_key, medicine_key, quantity, stock_status, updated_at)
+                SELECT k.pharmacy_key, k.medicine_key, k.quantity, k.stock_status, ?
+                FROM unnest(?::int[], ?::int[], ?::int[], ?::text[]) AS k(pharmacy_key, medicine_key, quantity, stock_status)
+                ON CONFLICT (pharmacy_key, medicine_key) DO NOTHING
+                RETURNING pharmacy_key, medicine_key
+            """;
+
+    private static final String UPDATE_EXISTING_SQL = """
+                UPDATE pharmacy_medicine_stock_keyed s
+                SET quantity = k.quantity, stock_status = k.stock_status, updated_at = ?
+                FROM unnest(?::int[], ?::int[], ?::int[], ?::text[]) AS k(pharmacy_key, medicine_key, quantity, stock_status)
+                WHERE s.pharmacy_key = k.pharmacy_key AND s.medicine_key = k.medicine_key
+            """;
+
+    private static final String CHUNK_CHECKPOINT_SQL =
+            "UPDATE file_ingestion_control SET committed_rows = ?, committed_digest = ? WHERE id = ?";
+
+    private static final String GROUP_MARK_PROCESSED_SQL =
+            "UPDATE file_ingestion_control SET status = 'PROCESSED', processed_at = now(), error_reason = NULL, " +
+                    IngestionControlAdapter.PROFILE_COLUMNS + " WHERE id = ?";
+
+    private static final String LOCK_CURRENT_STATE_SQL = """
+                SELECT s.pharmacy_key, s.medicine_key, s.quantity, s.stock_status
+                FROM pharmacy_medicine_stock_keyed s
+                JOIN unnest(?::int[], ?::int[]) AS k(pharmacy_key, medicine_key)
+                    ON s.pharmacy_key = k.pharmacy_key AND s.medicine_key = k.medicine_key
+                ORDER BY s.pharmacy_key, s.medicine_key
+                FOR UPDATE OF s
+            """;
+
+    private static final String SUMMARY_DELTA_SQL = """
+                INSERT INTO medicine_stock_status_summary (medicine_code, stock_status, pharmacy_count, updated_at)
+                VALUES (?, ?, ?, ?)
+                ON CONFLICT (medicine_code, stock_status)
+                DO UPDATE SET
+                    pharmacy_count = medicine_stock_status_summary.pharmacy_count + EXCLUDED.pharmacy_count,
+                    updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String LAST_UPDATED_AT_SQL = """
+                SELECT max(s.updated_at) AS updated_at
+                FROM pharmacy_medicine_stock_keyed s
+                JOIN pharmacy_key p ON p.id = s.pharmacy_key
+                WHERE p.cnpj = ?
+            """;
+
+    private static final String OUTBOX_INSERT_SQL = """
+                INSERT INTO stock_change_outbox
+                    (pharmacy_id, medicine_code, old_quantity, new_quantity, old_status, new_status, changed_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private record StockKey(int pharmacyKey, int medicineKey) implements Comparable<StockKey> {
+        @Override
+        public int compareTo(StockKey other) {
+            int byPharmacy = Integer.compare(pharmacyKey, other.pharmacyKey);
+            return byPharmacy != 0 ? byPharmacy : Integer.compare(medicineKey, other.medicineKey);
+        }
+    }
+
+    private record StockState(int quantity, StockStatus status) {}
+
+    private record SummaryKey(String medicineCode, StockStatus status) {}
+
     private final DataSource dataSource;
+    private final boolean maintainSummary;
+    private final boolean writeOutbox;
+    private final StockKeyDictionary keys = new StockKeyDictionary();
 
     public StockRepositoryAdapter(DataSource dataSource) {
+        this(dataSource, false, false);
+    }
+
+    public StockRepositoryAdapter(DataSource dataSource, boolean maintainSummary, boolean writeOutbox) {
         this.dataSource = dataSource;
+        this.maintainSummary = maintainSummary;
+        this.writeOutbox = writeOutbox;
     }
 
     @Override
-    public void upsertAll(List<StockEntry> rows) {
+    public int upsertAll(List<StockEntry> rows) {
         if (rows == null || rows.isEmpty()) {
-            return;
+            return 0;
         }
 
-        final String sql = """
-                    INSERT INTO pharmacy_medicine_stock (quantity, stock_status, updated_at, medicine_code, pharmacy_id)
-                    VALUES (?, ?, ?, ?, ?)
-                    ON CONFLICT (pharmacy_id, medicine_code)
-                    DO UPDATE SET
-                        quantity = EXCLUDED.quantity,
-                        stock_status = EXCLUDED.stock_status,
-                        updated_at = EXCLUDED.updated_at
-                """;
+        try (Connection connection = connectWithKeys(rows)) {
+            connection.setAutoCommit(false);
+
+            try {
+                int changed = executeUpsert(connection, rows);
+                connection.commit();
+                return changed;
 
-        try (Connection connection = dataSource.getConnection()) {
+            } catch (Exception ex) {
+                rollback(connection);
+                throw ex;
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to upsert pharmacy stock batch", e);
+        }
+    }
+
+    @Override
+    public int upsertChunk(long ingestionId, List<StockEntry> rows, int committedRows, long committedDigest) {
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+
+        try (Connection connection = connectWithKeys(rows)) {
             connection.setAutoCommit(false);
 
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                Timestamp now = Timestamp.from(Instant.now());
-                for (StockEntry row : rows) {
-                    validate(row);
-
-                    ps.setInt(1, row.quantity());
-                    ps.setString(2, row.status().name());
-                    ps.setTimestamp(3, now);
-                    ps.setString(4, row.medicineCode());
-                    ps.setString(5, row.cnpj());
-                    ps.addBatch();
-                }
+            try (PreparedStatement checkpoint = connection.prepareStatement(CHUNK_CHECKPOINT_SQL)) {
+                int changed = executeUpsert(connection, rows);
+
+                checkpoint.setInt(1, committedRows);
+                checkpoint.setLong(2, committedDigest);
+                checkpoint.setLong(3, ingestionId);
+                checkpoint.executeUpdate();
 
-                ps.executeBatch();
                 connection.commit();
+                return changed;
 
             } catch (Exception ex) {
                 rollback(connection);
                 throw ex;
             }
         } catch (Exception e) {
-            throw new InfrastructureException("Failed to upsert pharmacy stock batch", e);
+            throw new InfrastructureException("Failed to upsert pharmacy stock chunk (ingestionId=" + ingestionId
+                    + ", committedRows=" + committedRows + ")", e);
+        }
+    }
+
+    @Override
+    public List<StockFileBatchResult> upsertGroup(List<StockFileBatch> files) {
+        if (files == null || files.isEmpty()) {
+            return List.of();
+        }
+
+        List<StockEntry> rows = new ArrayList<>();
+        files.forEach(f -> rows.addAll(f.rows()));
+
+        try (Connection connection = connectWithKeys(rows)) {
+            connection.setAutoCommit(false);
+
+            try {
+                List<StockFileBatchResult> results = upsertGroupTogether(connection, files, rows);
+                connection.commit();
+                return results;
+            } catch (Exception ex) {
+                rollback(connection);
+                LOGGER.warning("Group commit failed, retrying files individually: files=" + files.size()
+                        + " reason=" + ex.getMessage());
+            }
+
+            try {
+                List<StockFileBatchResult> results = upsertGroupIsolated(connection, files);
+                connection.commit();
+                return results;
+            } catch (Exception ex) {
+                rollback(connection);
+                throw ex;
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to group-commit pharmacy stock (files=" + files.size() + ")", e);
         }
     }
 
+    private List<StockFileBatchResult> upsertGroupTogether(Connection connection, List<StockFileBatch> files,
+                                                           List<StockEntry> rows) throws SQLException {
+        long start = System.nanoTime();
+        int[] counts = executeUpsertCounts(connection, rows);
+        long upsertMillis = (System.nanoTime() - start) / 1_000_000;
+
+        List<StockFileBatchResult> results = new ArrayList<>(files.size());
+        try (PreparedStatement mark = connection.prepareStatement(GROUP_MARK_PROCESSED_SQL)) {
+            int offset = 0;
+            for (StockFileBatch file : files) {
+                int changed = changedRows(Arrays.copyOfRange(counts, offset, offset + file.rows().size()));
+                offset += file.rows().size();
+
+                int next = IngestionControlAdapter.bindProfile(mark, 1,
+                        withUpsertResult(file.profile(), changed, upsertMillis));
+                mark.setLong(next, file.ingestionId());
+                mark.addBatch();
+                results.add(new StockFileBatchResult(file.ingestionId(), changed, null));
+            }
+            mark.executeBatch();
+        }
+        return results;
+    }
+
+    private List<StockFileBatchResult> upsertGroupIsolated(Connection connection, List<StockFileBatch> files)
+            throws SQLException {
+        List<StockFileBatchResult> results = new ArrayList<>(files.size());
+        try (PreparedStatement mark = connection.prepareStatement(GROUP_MARK_PROCESSED_SQL)) {
+            for (StockFileBatch file : files) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    long start = System.nanoTime();
+                    int changed = executeUpsert(connection, file.rows());
+                    long upsertMillis = (System.nanoTime() - start) / 1_000_000;
+
+                    int next = IngestionControlAdapter.bindProfile(mark, 1,
+                            withUpsertResult(file.profile(), changed, upsertMillis));
+                    mark.setLong(next, file.ingestionId());
+                    mark.executeUpdate();
+
+                    connection.releaseSavepoint(savepoint);
+                    results.add(new StockFileBatchResult(file.ingestionId(), changed, null));
+                } catch (SQLException | RuntimeException ex) {
+                    connection.rollback(savepoint);
+                    results.add(new StockFileBatchResult(file.ingestionId(), 0,
+                            ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private static FileProcessingProfile withUpsertResult(FileProcessingProfile p, int changedRows, long upsertMillis) {
+        return new FileProcessingProfile(p.fileSizeBytes(), p.rowCount(), p.acceptedRows(), p.rejectedRows(),
+                p.distinctMedicines(), changedRows, p.downloadMillis(), p.parseMillis(), p.resolveMillis(),
+                upsertMillis);
+    }
+
+    @Override
+    public Optional<OffsetDateTime> lastUpdatedAt(String cnpj) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(LAST_UPDATED_AT_SQL)) {
+
+            ps.setString(1, cnpj);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(rs.getObject("updated_at", OffsetDateTime.class)) : Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to read stock updated_at (cnpj=" + cnpj + ")", e);
+        }
+    }
+
+    private Connection connectWithKeys(List<StockEntry> rows) throws SQLException {
+        keys.ensure(dataSource, rows);
+        return dataSource.getConnection();
+    }
+
+    private int executeUpsert(Connection connection, List<StockEntry> rows) throws SQLException {
+        return changedRows(executeUpsertCounts(connection, rows));
+    }
+
+    private int[] executeUpsertCounts(Connection connection, List<StockEntry> rows) throws SQLException {
+        rows.forEach(StockRepositoryAdapter::validate);
+        Map<StockKey, StockEntry> latest = new TreeMap<>();
+        for (StockEntry row : rows) {
+            latest.put(keyOf(row), row);
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        Set<StockKey> inserted = insertNew(connection, latest, now);
+
+        Map<StockKey, StockEntry> existing = new TreeMap<>(latest);
+        existing.keySet().removeAll(inserted);
+        Map<StockKey, StockState> previous = lockCurrentState(connection, existing.keySet());
+        if (previous.size() != existing.size()) {
+            throw new SQLException("Stock rows disappeared while being upserted: expected=" + existing.size()
+                    + " locked=" + previous.size(), "40001");
+        }
+        updateExisting(connection, existing, now);
+
+        return applyChanges(connection, previous, rows, now);
+    }
+
+    private Set<StockKey> insertNew(Connection connection, Map<StockKey, StockEntry> latest, Timestamp now)
+            throws SQLException {
+        Set<StockKey> inserted = new HashSet<>();
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_NEW_SQL)) {
+            bindRows(connection, ps, latest, now);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    inserted.add(new StockKey(rs.getInt("pharmacy_key"), rs.getInt("medicine_key")));
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static void updateExisting(Connection connection, Map<StockKey, StockEntry> existing, Timestamp now)
+            throws SQLException {
+        if (existing.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement ps = connection.prepareStatement(UPDATE_EXISTING_SQL)) {
+            bindRows(connection, ps, existing, now);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void bindRows(Connection connection, PreparedStatement ps, Map<StockKey, StockEntry> rows,
+                                 Timestamp now) throws SQLException {
+        Integer[] pharmacyKeys = new Integer[rows.size()];
+        Integer[] medicineKeys = new Integer[rows.size()];
+        Integer[] quantities = new Integer[rows.size()];
+        String[] statuses = new String[rows.size()];
+        int i = 0;
+        for (Map.Entry<StockKey, StockEntry> row : rows.entrySet()) {
+            pharmacyKeys[i] = row.getKey().pharmacyKey();
+            medicineKeys[i] = row.getKey().medicineKey();
+            quantities[i] = row.getValue().quantity();
+            statuses[i] = row.getValue().status().name();
+            i++;
+        }
+
+        ps.setTimestamp(1, now);
+        ps.setArray(2, connection.createArrayOf("int4", pharmacyKeys));
+        ps.setArray(3, connection.createArrayOf("int4", medicineKeys));
+        ps.setArray(4, connection.createArrayOf("int4", quantities));
+        ps.setArray(5, connection.createArrayOf("text", statuses));
+    }
+
+    private static Map<StockKey, StockState> lockCurrentState(Connection connection, Set<StockKey> stockKeys)
+            throws SQLException {
+        Map<StockKey, StockState> current = new HashMap<>();
+        if (stockKeys.isEmpty()) {
+            return current;
+        }
+
+        Integer[] pharmacyKeys = new Integer[stockKeys.size()];
+        Integer[] medicineKeys = new Integer[stockKeys.size()];
+        int i = 0;
+        for (StockKey key : stockKeys) {
+            pharmacyKeys[i] = key.pharmacyKey();
+            medicineKeys[i] = key.medicineKey();
+            i++;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(LOCK_CURRENT_STATE_SQL)) {
+            ps.setArray(1, connection.createArrayOf("int4", pharmacyKeys));
+            ps.setArray(2, connection.createArrayOf("int4", medicineKeys));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    current.put(new StockKey(rs.getInt("pharmacy_key"), rs.getInt("medicine_key")),
+                            new StockState(rs.getInt("quantity"), StockStatus.valueOf(rs.getString("stock_status"))));
+                }
+            }
+        }
+        return current;
+    }
+
+    private StockKey keyOf(StockEntry row) {
+        return new StockKey(keys.pharmacyKey(row.cnpj()), keys.medicineKey(row.medicineCode()));
+    }
+
+    private int[] applyChanges(Connection connection, Map<StockKey, StockState> current, List<StockEntry> rows,
+                               Timestamp now) throws SQLException {
+        int[] changed = new int[rows.size()];
+        Map<SummaryKey, Integer> deltas = new TreeMap<>(Comparator
+                .comparing(SummaryKey::medicineCode)
+                .thenComparing(SummaryKey::status));
+
+        try (PreparedStatement outbox = writeOutbox ? connection.prepareStatement(OUTBOX_INSERT_SQL) : null) {
+            for (int i = 0; i < rows.size(); i++) {
+                StockEntry row = rows.get(i);
+                StockState next = new StockState(row.quantity(), row.status());
+                StockState old = current.put(keyOf(row), next);
+                if (next.equals(old)) continue;
+                changed[i] = 1;
+
+                if (maintainSummary && (old == null || old.status() != next.status())) {
+                    if (old != null) {
+                        deltas.merge(new SummaryKey(row.medicineCode(), old.status()), -1, Integer::sum);
+                    }
+                    deltas.merge(new SummaryKey(row.medicineCode(), next.status()), 1, Integer::sum);
+                }
+                if (outbox != null) {
+                    outbox.setString(1, row.cnpj());
+                    outbox.setString(2, row.medicineCode());
+                    outbox.setObject(3, old == null ? null : old.quantity(), Types.INTEGER);
+                    outbox.setInt(4, next.quantity());
+                    outbox.setString(5, old == null ? null : old.status().name());
+                    outbox.setString(6, next.status().name());
+                    outbox.setTimestamp(7, now);
+                    outbox.addBatch();
+                }
+            }
+            if (outbox != null) {
+                outbox.executeBatch();
+            }
+        }
+
+        deltas.values().removeIf(delta -> delta == 0);
+        applySummaryDeltas(connection, deltas, now);
+        return changed;
+    }
+
+    private static void applySummaryDeltas(Connection connection, Map<SummaryKey, Integer> deltas, Timestamp now)
+            throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(SUMMARY_DELTA_SQL)) {
+            for (Map.Entry<SummaryKey, Integer> delta : deltas.entrySet()) {
+                ps.setString(1, delta.getKey().medicineCode());
+                ps.setString(2, delta.getKey().status().name());
+                ps.setInt(3, delta.getValue());
+                ps.setTimestamp(4, now);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static int changedRows(int[] changedFlags) {
+        int changed = 0;
+        for (int flag : changedFlags) {
+            changed += flag;
+        }
+        return changed;
+    }
+
     private static void validate(StockEntry row) {
         if (row == null) {
             throw new IllegalArgumentException("row is required");
@@ -91,4 +479,3 @@ public class StockRepositoryAdapter implements StockRepositoryPort {
     }
 }
 
-
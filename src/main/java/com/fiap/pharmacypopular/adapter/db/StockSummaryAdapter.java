@@ -0,0 +1,144 @@
+package com.fiap.pharmacypopular.adapter.db;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.StockStatus;
+import com.fiap.pharmacypopular.domain.model.StockSummaryDrift;
+import com.fiap.pharmacypopular.domain.port.StockSummaryRepositoryPort;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class StockSummaryAdapter implements StockSummaryRepositoryPort {
+
+    private static final Logger LOGGER = Logger.getLogger(StockSummaryAdapter.class.getName());
+
+    private static final String LOCK_SQL = "LOCK TABLE medicine_stock_status_summary IN EXCLUSIVE MODE";
+    private static final String ANY_ROW_SQL = "SELECT EXISTS (SELECT 1 FROM medicine_stock_status_summary)";
+    private static final String INSERT_FROM_STOCK_SQL = """
+                INSERT INTO medicine_stock_status_summary (medicine_code, stock_status, pharmacy_count, updated_at)
+                SELECT m.medicine_code, c.stock_status, c.pharmacy_count, now()
+                FROM (
+                    SELECT medicine_key, stock_status, COUNT(*) AS pharmacy_count
+                    FROM pharmacy_medicine_stock_keyed
+                    GROUP BY medicine_key, stock_status
+                ) c
+                JOIN medicine_key m ON m.id = c.medicine_key
+            """;
+
+    private final DataSource dataSource;
+
+    public StockSummaryAdapter(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public List<StockSummaryDrift> findDrift() {
+        final String sql = """
+                WITH actual AS (
+                    SELECT m.medicine_code, c.stock_status, c.pharmacy_count
+                    FROM (
+                        SELECT medicine_key, stock_status, COUNT(*) AS pharmacy_count
+                        FROM pharmacy_medicine_stock_keyed
+                        GROUP BY medicine_key, stock_status
+                    ) c
+                    JOIN medicine_key m ON m.id = c.medicine_key
+                )
+                SELECT COALESCE(a.medicine_code, s.medicine_code) AS medicine_code,
+                       COALESCE(a.stock_status, s.stock_status) AS stock_status,
+                       COALESCE(s.pharmacy_count, 0) AS stored_count,
+                       COALESCE(a.pharmacy_count, 0) AS actual_count
+                FROM actual a
+                FULL OUTER JOIN medicine_stock_status_summary s
+                    ON s.medicine_code = a.medicine_code AND s.stock_status = a.stock_status
+                WHERE COALESCE(s.pharmacy_count, 0) <> COALESCE(a.pharmacy_count, 0)
+                ORDER BY 1, 2
+            """;
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+
+            List<StockSummaryDrift> drift = new ArrayList<>();
+            while (rs.next()) {
+                drift.add(new StockSummaryDrift(
+                        rs.getString("medicine_code"),
+                        StockStatus.valueOf(rs.getString("stock_status")),
+                        rs.getLong("stored_count"),
+                        rs.getLong("actual_count")));
+            }
+            return drift;
+
+        } catch (SQLException e) {
+            throw new InfrastructureException("Failed to compare stock status summary", e);
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        final String deleteSql = "DELETE FROM medicine_stock_status_summary";
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (Statement st = connection.createStatement()) {
+                st.execute(LOCK_SQL);
+                st.executeUpdate(deleteSql);
+                int rows = st.executeUpdate(INSERT_FROM_STOCK_SQL);
+                connection.commit();
+                return rows;
+
+            } catch (Exception ex) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Rollback failed after error", rollbackEx);
+                }
+                throw ex;
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to rebuild stock status summary", e);
+        }
+    }
+
+    @Override
+    public int initializeIfEmpty() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (hasRows(connection)) {
+                return 0;
+            }
+            connection.setAutoCommit(false);
+
+            try (Statement st = connection.createStatement()) {
+                st.execute(LOCK_SQL);
+                int rows = hasRows(connection) ? 0 : st.executeUpdate(INSERT_FROM_STOCK_SQL);
+                connection.commit();
+                return rows;
+
+            } catch (Exception ex) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Rollback failed after error", rollbackEx);
+                }
+                throw ex;
+            }
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to backfill stock status summary", e);
+        }
+    }
+
+    private static boolean hasRows(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(ANY_ROW_SQL)) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+}
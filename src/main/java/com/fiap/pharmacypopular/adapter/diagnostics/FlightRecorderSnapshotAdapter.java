@@ -0,0 +1,107 @@
+package com.fiap.pharmacypopular.adapter.diagnostics;
+
+import com.azure.storage.blob.BlobContainerClient;
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.port.DiagnosticSnapshotPort;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+public class FlightRecorderSnapshotAdapter implements DiagnosticSnapshotPort, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger("FlightRecorderSnapshotAdapter");
+    private static final DateTimeFormatter STAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final Recording recording;
+    private final Path dumpDirectory;
+    private final BlobContainerClient container;
+    private final String blobPrefix;
+    private final Duration minInterval;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("jfr-snapshot").daemon(true).factory());
+    private boolean captured;
+    private long lastCaptureNanos;
+
+    public FlightRecorderSnapshotAdapter(Path dumpDirectory, BlobContainerClient container, String blobPrefix,
+                                         Duration maxAge, long maxSizeBytes, Duration minInterval) {
+        this.dumpDirectory = dumpDirectory;
+        this.container = container;
+        this.blobPrefix = blobPrefix;
+        this.minInterval = minInterval;
+        this.recording = startRecording(maxAge, maxSizeBytes);
+    }
+
+    private static Recording startRecording(Duration maxAge, long maxSizeBytes) {
+        Configuration settings;
+        try {
+            settings = Configuration.getConfiguration("default");
+        } catch (IOException | ParseException e) {
+            throw new InfrastructureException("Failed to load default flight recorder settings", e);
+        }
+
+        Recording recording = new Recording(settings);
+        recording.setName("pharmacy-ingestion");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable("jdk.TLSHandshake");
+        recording.start();
+        LOGGER.info("Flight recording started: maxAgeMinutes=" + maxAge.toMinutes() + " maxSizeBytes=" + maxSizeBytes);
+        return recording;
+    }
+
+    @Override
+    public void capture(String trigger, String subject, Duration elapsed) {
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (captured && now - lastCaptureNanos < minInterval.toNanos()) {
+                LOGGER.info("Flight recording snapshot skipped: trigger=" + trigger + " subject=" + subject
+                        + " reason=last snapshot less than " + minInterval.toSeconds() + "s ago");
+                return;
+            }
+            captured = true;
+            lastCaptureNanos = now;
+        }
+        writer.execute(() -> dump(trigger, subject, elapsed));
+    }
+
+    @Override
+    public void close() {
+        writer.shutdownNow();
+        recording.close();
+    }
+
+    private void dump(String trigger, String subject, Duration elapsed) {
+        String fileName = "ingestion-" + trigger + "-" + STAMP.format(Instant.now()) + ".jfr";
+        Path target = dumpDirectory.resolve(fileName);
+        try {
+            Files.createDirectories(dumpDirectory);
+            recording.dump(target);
+
+            if (container == null) {
+                LOGGER.info("Flight recording dumped: file=" + target + " trigger=" + trigger + " subject=" + subject
+                        + " elapsedMs=" + elapsed.toMillis());
+                return;
+            }
+            String blobName = blobPrefix + fileName;
+            container.getBlobClient(blobName).uploadFromFile(target.toString(), true);
+            Files.deleteIfExists(target);
+            LOGGER.info("Flight recording uploaded: blob=" + blobName + " trigger=" + trigger + " subject=" + subject
+                    + " elapsedMs=" + elapsed.toMillis());
+        } catch (Exception e) {
+            LOGGER.warning("Failed to dump flight recording: file=" + target + " reason=" + e.getMessage());
+        }
+    }
+}
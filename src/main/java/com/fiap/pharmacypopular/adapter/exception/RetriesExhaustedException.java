@@ -0,0 +1,7 @@
+package com.fiap.pharmacypopular.adapter.exception;
+
+public class RetriesExhaustedException extends RuntimeException{
+    public RetriesExhaustedException(String message, Throwable cause){
+        super(message, cause);
+    }
+}
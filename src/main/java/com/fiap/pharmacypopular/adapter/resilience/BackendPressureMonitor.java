@@ -0,0 +1,33 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.port.BackendPressurePort;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BackendPressureMonitor implements BackendPressurePort {
+
+    private static final double POOL_WAIT_ALPHA = 0.2;
+
+    private final AtomicLong poolWaitMicrosEwma = new AtomicLong();
+    private final AtomicLong poolTimeouts = new AtomicLong();
+    private final AtomicLong throttledResponses = new AtomicLong();
+
+    public void recordPoolWait(long nanos) {
+        long sampleMicros = nanos / 1_000;
+        poolWaitMicrosEwma.accumulateAndGet(sampleMicros,
+                (current, sample) -> Math.round(current + POOL_WAIT_ALPHA * (sample - current)));
+    }
+
+    public void recordPoolTimeout() {
+        poolTimeouts.incrementAndGet();
+    }
+
+    public void recordThrottle() {
+        throttledResponses.incrementAndGet();
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(poolWaitMicrosEwma.get() / 1_000.0, poolTimeouts.get(), throttledResponses.get());
+    }
+}
@@ -0,0 +1,68 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.adapter.exception.CircuitOpenException;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    private enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    public synchronized void beforeCall() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                throw new CircuitOpenException("Circuit '" + name + "' is open after " + consecutiveFailures
+                        + " consecutive transient failures");
+            }
+            state = State.HALF_OPEN;
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            throw new CircuitOpenException("Circuit '" + name + "' is half-open, waiting for the probe call");
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOGGER.info("Circuit '" + name + "' closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void onTransientFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                LOGGER.warning("Circuit '" + name + "' opened after " + consecutiveFailures + " transient failures");
+            }
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openedAt < openNanos;
+    }
+}
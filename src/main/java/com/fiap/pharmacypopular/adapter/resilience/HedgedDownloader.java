@@ -0,0 +1,95 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+public class HedgedDownloader {
+
+    private static final Logger LOGGER = Logger.getLogger(HedgedDownloader.class.getName());
+    private static final int WINDOW_SIZE = 200;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long[] latencyWindow = new long[WINDOW_SIZE];
+    private final double percentile;
+    private final int minSamples;
+    private int samples;
+    private int next;
+
+    public HedgedDownloader(double percentile, int minSamples) {
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, minSamples);
+    }
+
+    public <T> T download(String blobName, Supplier<T> download) {
+        long hedgeAfterMillis = hedgeDelayMillis();
+        if (hedgeAfterMillis < 0) {
+            return timed(download);
+        }
+
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        Future<T> primary = completion.submit(() -> timed(download));
+        Future<T> hedge = null;
+        try {
+            Future<T> done = completion.poll(hedgeAfterMillis, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                LOGGER.info("Hedging download after " + hedgeAfterMillis + "ms: blob=" + blobName);
+                hedge = completion.submit(() -> timed(download));
+                done = completion.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException first) {
+                if (hedge == null) {
+                    throw first;
+                }
+                return completion.take().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new InfrastructureException("Failed to download blob: " + blobName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InfrastructureException("Interrupted while downloading blob: " + blobName, e);
+        } finally {
+            primary.cancel(true);
+            if (hedge != null) {
+                hedge.cancel(true);
+            }
+        }
+    }
+
+    private <T> T timed(Supplier<T> download) {
+        long start = System.nanoTime();
+        T result = download.get();
+        record((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private synchronized void record(long millis) {
+        latencyWindow[next] = millis;
+        next = (next + 1) % WINDOW_SIZE;
+        samples = Math.min(samples + 1, WINDOW_SIZE);
+    }
+
+    private synchronized long hedgeDelayMillis() {
+        if (samples < minSamples) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(latencyWindow, samples);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(samples - 1, Math.ceil(percentile * samples) - 1);
+        return sorted[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,74 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class ResilientBlobStorageAdapter implements BlobStoragePort {
+
+    private final BlobStoragePort delegate;
+    private final ResilientExecutor executor;
+    private final HedgedDownloader hedgedDownloader;
+    private final long hedgeMaxBytes;
+
+    public ResilientBlobStorageAdapter(BlobStoragePort delegate, ResilientExecutor executor,
+                                       HedgedDownloader hedgedDownloader, long hedgeMaxBytes) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.hedgedDownloader = hedgedDownloader;
+        this.hedgeMaxBytes = hedgeMaxBytes;
+    }
+
+    @Override
+    public List<BlobRef> listInboxBlobs() {
+        return executor.call("listInboxBlobs", delegate::listInboxBlobs);
+    }
+
+    @Override
+    public List<BlobRef> listInboxBlobsUploadedBetween(OffsetDateTime after, OffsetDateTime upTo) {
+        return executor.call("listInboxBlobsUploadedBetween",
+                () -> delegate.listInboxBlobsUploadedBetween(after, upTo));
+    }
+
+    @Override
+    public byte[] download(String blobName) {
+        return executor.call("download " + blobName, () -> hedgedDownloader == null
+                ? delegate.download(blobName)
+                : hedgedDownloader.download(blobName, () -> delegate.download(blobName)));
+    }
+
+    @Override
+    public ByteBuffer downloadContent(BlobRef blob) {
+        boolean hedge = hedgedDownloader != null && (hedgeMaxBytes <= 0 || blob.size() < hedgeMaxBytes);
+        return executor.call("download " + blob.name(), () -> hedge
+                ? hedgedDownloader.download(blob.name(), () -> delegate.downloadContent(blob))
+                : delegate.downloadContent(blob));
+    }
+
+    @Override
+    public void moveToProcessed(String inboxBlobName) {
+        executor.run("moveToProcessed " + inboxBlobName, () -> delegate.moveToProcessed(inboxBlobName));
+    }
+
+    @Override
+    public void moveToError(String inboxBlobName) {
+        executor.run("moveToError " + inboxBlobName, () -> delegate.moveToError(inboxBlobName));
+    }
+
+    @Override
+    public void writeRejectReport(String inboxBlobName, byte[] content) {
+        executor.run("writeRejectReport " + inboxBlobName, () -> delegate.writeRejectReport(inboxBlobName, content));
+    }
+
+    @Override
+    public List<String> listProcessedCnpjs() {
+        return executor.call("listProcessedCnpjs", delegate::listProcessedCnpjs);
+    }
+
+    @Override
+    public List<BlobRef> listProcessedBlobs(String cnpj) {
+        return executor.call("listProcessedBlobs " + cnpj, () -> delegate.listProcessedBlobs(cnpj));
+    }
+}
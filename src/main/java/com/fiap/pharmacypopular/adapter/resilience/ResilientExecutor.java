@@ -0,0 +1,82 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.adapter.exception.RetriesExhaustedException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+public class ResilientExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(ResilientExecutor.class.getName());
+
+    private final CircuitBreaker circuitBreaker;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final BackendPressureMonitor pressureMonitor;
+
+    public ResilientExecutor(CircuitBreaker circuitBreaker, int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        this(circuitBreaker, maxAttempts, baseDelay, maxDelay, null);
+    }
+
+    public ResilientExecutor(CircuitBreaker circuitBreaker, int maxAttempts, Duration baseDelay, Duration maxDelay,
+                             BackendPressureMonitor pressureMonitor) {
+        this.circuitBreaker = circuitBreaker;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelay.toMillis();
+        this.maxDelayMillis = maxDelay.toMillis();
+        this.pressureMonitor = pressureMonitor;
+    }
+
+    public <T> T call(String operation, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            circuitBreaker.beforeCall();
+            try {
+                T result = action.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (!TransientErrorClassifier.isTransient(e)) {
+                    circuitBreaker.onSuccess();
+                    throw e;
+                }
+                circuitBreaker.onTransientFailure();
+                if (pressureMonitor != null && TransientErrorClassifier.isThrottling(e)) {
+                    pressureMonitor.recordThrottle();
+                }
+                if (attempt >= maxAttempts) {
+                    throw new RetriesExhaustedException(operation + " failed after " + attempt
+                            + " attempts: " + e.getMessage(), e);
+                }
+                long delay = backoffMillis(attempt);
+                LOGGER.warning("Transient failure on " + operation + " (attempt " + attempt + "/" + maxAttempts
+                        + "), retrying in " + delay + "ms: " + e.getMessage());
+                sleep(delay, operation);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable action) {
+        call(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static void sleep(long millis, String operation) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InfrastructureException("Interrupted while retrying " + operation, e);
+        }
+    }
+}
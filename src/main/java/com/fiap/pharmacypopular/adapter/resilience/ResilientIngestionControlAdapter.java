@@ -0,0 +1,64 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+import com.fiap.pharmacypopular.domain.model.FileProfileSummary;
+import com.fiap.pharmacypopular.domain.model.IngestionControlModel;
+import com.fiap.pharmacypopular.domain.port.IngestionControlRepositoryPort;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class ResilientIngestionControlAdapter implements IngestionControlRepositoryPort {
+
+    private final IngestionControlRepositoryPort delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientIngestionControlAdapter(IngestionControlRepositoryPort delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public Optional<IngestionControlModel> findByBlobPathAndEtag(String blobPath, String etag) {
+        return executor.call("findByBlobPathAndEtag", () -> delegate.findByBlobPathAndEtag(blobPath, etag));
+    }
+
+    @Override
+    public Optional<IngestionControlModel> findByBlobPathAndEtagConsistent(String blobPath, String etag) {
+        return executor.call("findByBlobPathAndEtagConsistent",
+                () -> delegate.findByBlobPathAndEtagConsistent(blobPath, etag));
+    }
+
+    @Override
+    public Optional<Long> startProcessing(String blobPath, String etag, String fileName, String cnpj, LocalDate referenceDate) {
+        return executor.call("startProcessing",
+                () -> delegate.startProcessing(blobPath, etag, fileName, cnpj, referenceDate));
+    }
+
+    @Override
+    public void markProcessed(long id) {
+        executor.run("markProcessed", () -> delegate.markProcessed(id));
+    }
+
+    @Override
+    public void markProcessed(long id, FileProcessingProfile profile) {
+        executor.run("markProcessed", () -> delegate.markProcessed(id, profile));
+    }
+
+    @Override
+    public void markFailed(long id, String errorReason, FileProcessingProfile profile) {
+        executor.run("markFailed", () -> delegate.markFailed(id, errorReason, profile));
+    }
+
+    @Override
+    public List<FileProfileSummary> findSlowestFiles(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return executor.call("findSlowestFiles", () -> delegate.findSlowestFiles(from, to, limit));
+    }
+
+    @Override
+    public List<FileProfileSummary> findLargestFiles(OffsetDateTime from, OffsetDateTime to, int limit) {
+        return executor.call("findLargestFiles", () -> delegate.findLargestFiles(from, to, limit));
+    }
+}
@@ -0,0 +1,27 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.port.MedicationRepositoryPort;
+
+import java.util.Map;
+import java.util.Optional;
+
+public class ResilientMedicationRepositoryAdapter implements MedicationRepositoryPort {
+
+    private final MedicationRepositoryPort delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientMedicationRepositoryAdapter(MedicationRepositoryPort delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public Optional<String> findCodeByName(String medicineName) {
+        return executor.call("findCodeByName", () -> delegate.findCodeByName(medicineName));
+    }
+
+    @Override
+    public Map<String, String> findAllCodesByName() {
+        return executor.call("findAllCodesByName", delegate::findAllCodesByName);
+    }
+}
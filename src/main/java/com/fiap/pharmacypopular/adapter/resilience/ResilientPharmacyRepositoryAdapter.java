@@ -0,0 +1,19 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.port.PharmacyRepositoryPort;
+
+public class ResilientPharmacyRepositoryAdapter implements PharmacyRepositoryPort {
+
+    private final PharmacyRepositoryPort delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientPharmacyRepositoryAdapter(PharmacyRepositoryPort delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean existsByCnpj(String cnpj) {
+        return executor.call("existsByCnpj", () -> delegate.existsByCnpj(cnpj));
+    }
+}
@@ -0,0 +1,42 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.fiap.pharmacypopular.domain.model.StockEntry;
+import com.fiap.pharmacypopular.domain.model.StockFileBatch;
+import com.fiap.pharmacypopular.domain.model.StockFileBatchResult;
+import com.fiap.pharmacypopular.domain.port.StockRepositoryPort;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public class ResilientStockRepositoryAdapter implements StockRepositoryPort {
+
+    private final StockRepositoryPort delegate;
+    private final ResilientExecutor executor;
+
+    public ResilientStockRepositoryAdapter(StockRepositoryPort delegate, ResilientExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public int upsertAll(List<StockEntry> rows) {
+        return executor.call("upsertAll", () -> delegate.upsertAll(rows));
+    }
+
+    @Override
+    public int upsertChunk(long ingestionId, List<StockEntry> rows, int committedRows, long committedDigest) {
+        return executor.call("upsertChunk",
+                () -> delegate.upsertChunk(ingestionId, rows, committedRows, committedDigest));
+    }
+
+    @Override
+    public List<StockFileBatchResult> upsertGroup(List<StockFileBatch> files) {
+        return executor.call("upsertGroup", () -> delegate.upsertGroup(files));
+    }
+
+    @Override
+    public Optional<OffsetDateTime> lastUpdatedAt(String cnpj) {
+        return executor.call("lastUpdatedAt", () -> delegate.lastUpdatedAt(cnpj));
+    }
+}
@@ -0,0 +1,65 @@
+package com.fiap.pharmacypopular.adapter.resilience;
+
+import com.azure.core.exception.HttpResponseException;
+import com.fiap.pharmacypopular.adapter.exception.CircuitOpenException;
+import com.fiap.pharmacypopular.adapter.exception.DestinationAlreadyExistsException;
+import com.fiap.pharmacypopular.adapter.exception.RetriesExhaustedException;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+public final class TransientErrorClassifier {
+
+    private static final Set<Integer> TRANSIENT_HTTP_STATUS = Set.of(408, 429, 500, 502, 503, 504);
+    private static final Set<Integer> THROTTLING_HTTP_STATUS = Set.of(429, 503);
+    private static final Set<String> TRANSIENT_SQL_STATES = Set.of(
+            "40001", // serialization_failure
+            "40P01", // deadlock_detected
+            "53300", // too_many_connections
+            "55P03", // lock_not_available
+            "57P01", // admin_shutdown
+            "57P02", // crash_shutdown
+            "57P03"  // cannot_connect_now
+    );
+
+    private TransientErrorClassifier() {}
+
+    public static boolean isTransient(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof DestinationAlreadyExistsException || t instanceof CircuitOpenException
+                    || t instanceof RetriesExhaustedException) {
+                return false;
+            }
+            if (t instanceof HttpResponseException http && http.getResponse() != null) {
+                return TRANSIENT_HTTP_STATUS.contains(http.getResponse().getStatusCode());
+            }
+            if (t instanceof SQLTransientException || t instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null) {
+                String state = sql.getSQLState();
+                return state.startsWith("08") || TRANSIENT_SQL_STATES.contains(state);
+            }
+            if (t instanceof SocketException || t instanceof SocketTimeoutException
+                    || t instanceof HttpTimeoutException || t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isThrottling(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpResponseException http && http.getResponse() != null) {
+                return THROTTLING_HTTP_STATUS.contains(http.getResponse().getStatusCode());
+            }
+        }
+        return false;
+    }
+}
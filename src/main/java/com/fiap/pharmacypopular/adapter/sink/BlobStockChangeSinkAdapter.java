@@ -0,0 +1,43 @@
+package com.fiap.pharmacypopular.adapter.sink;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.blob.BlobContainerClient;
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+import com.fiap.pharmacypopular.domain.port.StockChangeSinkPort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class BlobStockChangeSinkAdapter implements StockChangeSinkPort {
+
+    private final BlobContainerClient container;
+    private final String prefix;
+
+    public BlobStockChangeSinkAdapter(BlobContainerClient container, String prefix) {
+        this.container = container;
+        this.prefix = prefix.endsWith("/") ? prefix : prefix + "/";
+    }
+
+    @Override
+    public void publish(List<StockChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        StockChangeEvent first = events.get(0);
+        LocalDate day = first.changedAt() == null
+                ? LocalDate.now(ZoneOffset.UTC)
+                : first.changedAt().withOffsetSameInstant(ZoneOffset.UTC).toLocalDate();
+        String name = String.format("%s%s/%019d-%019d.jsonl", prefix, day, first.id(), events.get(events.size() - 1).id());
+
+        try {
+            container.getBlobClient(name).upload(
+                    BinaryData.fromBytes(StockChangeJsonLines.encode(events).getBytes(StandardCharsets.UTF_8)), true);
+        } catch (Exception e) {
+            throw new InfrastructureException("Failed to write stock change events to blob: " + name, e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.fiap.pharmacypopular.adapter.sink;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+import com.fiap.pharmacypopular.domain.port.StockChangeSinkPort;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileStockChangeSinkAdapter implements StockChangeSinkPort {
+
+    private final Path file;
+
+    public FileStockChangeSinkAdapter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void publish(List<StockChangeEvent> events) {
+        String lines = StockChangeJsonLines.encode(events);
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to append stock change events to " + file, e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.fiap.pharmacypopular.adapter.sink;
+
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+import com.fiap.pharmacypopular.domain.port.StockChangeSinkPort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class InMemoryStockChangeSinkAdapter implements StockChangeSinkPort {
+
+    private final BlockingQueue<StockChangeEvent> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void publish(List<StockChangeEvent> events) {
+        queue.addAll(events);
+    }
+
+    public BlockingQueue<StockChangeEvent> queue() {
+        return queue;
+    }
+
+    public List<StockChangeEvent> drain() {
+        List<StockChangeEvent> events = new ArrayList<>();
+        queue.drainTo(events);
+        return events;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fiap.pharmacypopular.adapter.sink;
+
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+
+import java.util.List;
+
+final class StockChangeJsonLines {
+
+    private StockChangeJsonLines() {}
+
+    static String encode(List<StockChangeEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (StockChangeEvent e : events) {
+            lines.append("{\"id\":").append(e.id())
+                    .append(",\"cnpj\":").append(quote(e.cnpj()))
+                    .append(",\"medicineCode\":").append(quote(e.medicineCode()))
+                    .append(",\"oldQuantity\":").append(e.oldQuantity())
+                    .append(",\"newQuantity\":").append(e.newQuantity())
+                    .append(",\"oldStatus\":").append(e.oldStatus() == null ? "null" : quote(e.oldStatus().name()))
+                    .append(",\"newStatus\":").append(quote(e.newStatus().name()))
+                    .append(",\"changedAt\":").append(e.changedAt() == null ? "null" : quote(e.changedAt().toString()))
+                    .append("}\n");
+        }
+        return lines.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
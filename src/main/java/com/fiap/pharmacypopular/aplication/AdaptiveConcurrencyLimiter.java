@@ -0,0 +1,124 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.BackendPressurePort;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class AdaptiveConcurrencyLimiter {
+
+    public record Stats(int limit, int inFlight, int peakInFlight, long increases, long decreases,
+                        double baselineMicrosPerRow) {}
+
+    private static final double BACKOFF_RATIO = 0.7;
+    private static final double BASELINE_DRIFT = 1.01;
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final BackendPressurePort pressure;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+    private final double maxPoolWaitMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int peakInFlight;
+    private long increases;
+    private long decreases;
+    private double baselineMicrosPerRow;
+    private long lastDecreaseNanos;
+    private BackendPressurePort.Snapshot lastPressure;
+
+    public AdaptiveConcurrencyLimiter(BackendPressurePort pressure, int initialLimit, int minLimit, int maxLimit,
+                                      double latencyTolerance, double maxPoolWaitMillis) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency bounds: min=" + minLimit + " max=" + maxLimit);
+        }
+        this.pressure = pressure;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.maxPoolWaitMillis = maxPoolWaitMillis;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.lastPressure = pressure.snapshot();
+    }
+
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                slotFreed.await();
+            }
+            inFlight++;
+            peakInFlight = Math.max(peakInFlight, inFlight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void abandon() {
+        lock.lock();
+        try {
+            inFlight--;
+            slotFreed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long upsertNanos, int rows) {
+        BackendPressurePort.Snapshot current = pressure.snapshot();
+        lock.lock();
+        try {
+            inFlight--;
+            int before = (int) limit;
+
+            boolean overloaded = current.throttledResponses() > lastPressure.throttledResponses()
+                    || current.poolTimeouts() > lastPressure.poolTimeouts()
+                    || current.poolWaitMillis() > maxPoolWaitMillis;
+            lastPressure = current;
+
+            if (rows > 0 && upsertNanos > 0) {
+                double microsPerRow = upsertNanos / 1_000.0 / rows;
+                overloaded |= baselineMicrosPerRow > 0 && microsPerRow > baselineMicrosPerRow * latencyTolerance;
+                baselineMicrosPerRow = baselineMicrosPerRow == 0
+                        ? microsPerRow
+                        : Math.min(microsPerRow, baselineMicrosPerRow * BASELINE_DRIFT);
+            }
+
+            long now = System.nanoTime();
+            if (overloaded) {
+                if (now - lastDecreaseNanos >= DECREASE_COOLDOWN_NANOS) {
+                    limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                    lastDecreaseNanos = now;
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            int after = (int) limit;
+            if (after > before) increases++;
+            if (after < before) decreases++;
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            return new Stats((int) limit, inFlight, peakInFlight, increases, decreases, baselineMicrosPerRow);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
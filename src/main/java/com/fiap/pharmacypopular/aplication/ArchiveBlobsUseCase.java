@@ -0,0 +1,122 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.aplication.service.BundleCodec;
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort;
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort.ArchivableBlob;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+public class ArchiveBlobsUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("ArchiveBlobsUseCase");
+
+    private final BlobArchivePort archivePort;
+    private final BundleCodec codec;
+    private final ArchiveLayout layout;
+    private final int afterDays;
+    private final int maxBundlesPerRun;
+
+    public ArchiveBlobsUseCase(BlobArchivePort archivePort, BundleCodec codec, ArchiveLayout layout, int afterDays,
+                               int maxBundlesPerRun) {
+        this.archivePort = archivePort;
+        this.codec = codec;
+        this.layout = layout;
+        this.afterDays = Math.max(1, afterDays);
+        this.maxBundlesPerRun = maxBundlesPerRun;
+    }
+
+    public ArchiveRunResult execute() {
+        long start = System.nanoTime();
+        long runId = System.currentTimeMillis() / 1000;
+        OffsetDateTime before = LocalDate.now(ZoneOffset.UTC).minusDays(afterDays - 1L)
+                .atStartOfDay().atOffset(ZoneOffset.UTC);
+
+        int bundles = 0;
+        int members = 0;
+        int failedBundles = 0;
+
+        for (BlobArchivePort.Area area : BlobArchivePort.Area.values()) {
+            Map<String, List<ArchivableBlob>> groups = new TreeMap<>();
+            for (ArchivableBlob blob : archivePort.listArchivable(area, before)) {
+                LocalDate day = blob.lastModified().atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+                groups.computeIfAbsent(layout.bundleKey(area, day, layout.shardOf(blob.cnpj()), runId),
+                        k -> new ArrayList<>()).add(blob);
+            }
+
+            for (Map.Entry<String, List<ArchivableBlob>> group : groups.entrySet()) {
+                if (maxBundlesPerRun > 0 && bundles + failedBundles >= maxBundlesPerRun) {
+                    LOGGER.info("Archive run reached ARCHIVE_MAX_BUNDLES_PER_RUN=" + maxBundlesPerRun
+                            + ", remaining groups continue next run");
+                    return result(bundles, members, failedBundles, start);
+                }
+                try {
+                    members += writeBundle(group.getKey(), group.getValue());
+                    bundles++;
+                } catch (Exception e) {
+                    failedBundles++;
+                    LOGGER.severe("Failed archiving bundle=" + group.getKey() + " reason=" + e.getMessage());
+                }
+            }
+        }
+        return result(bundles, members, failedBundles, start);
+    }
+
+    private int writeBundle(String bundleKey, List<ArchivableBlob> blobs) {
+        List<ArchivableBlob> ordered = blobs.stream()
+                .sorted(Comparator.comparing(ArchivableBlob::cnpj)
+                        .thenComparing(ArchivableBlob::lastModified)
+                        .thenComparing(ArchivableBlob::name))
+                .toList();
+
+        List<BundleCodec.Member> written;
+        try (BundleCodec.BundleWriter writer = codec.writer(archivePort.openBundle(bundleKey))) {
+            for (ArchivableBlob blob : ordered) {
+                try (InputStream content = archivePort.open(blob.name())) {
+                    writer.add(blob.name(), blob.cnpj(), blob.lastModified(), content);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to read blob for bundle: " + blob.name(), e);
+                }
+            }
+            written = writer.members();
+        }
+        archivePort.writeBundleIndex(bundleKey, codec.encodeIndex(written));
+
+        List<BundleCodec.Member> stored = archivePort.readBundleIndex(bundleKey)
+                .map(codec::decodeIndex)
+                .orElse(List.of());
+        if (!stored.equals(written)) {
+            throw new IllegalStateException("Bundle index does not round-trip, originals kept: bundle=" + bundleKey
+                    + " written=" + written.size() + " decoded=" + stored.size());
+        }
+
+        for (BundleCodec.Member member : written) {
+            try {
+                archivePort.delete(member.name());
+            } catch (Exception e) {
+                LOGGER.warning("Archived blob not deleted (kept in place): blob=" + member.name()
+                        + " bundle=" + bundleKey + " reason=" + e.getMessage());
+            }
+        }
+        LOGGER.info("Archived bundle=" + bundleKey + " members=" + written.size());
+        return written.size();
+    }
+
+    private ArchiveRunResult result(int bundles, int members, int failedBundles, long start) {
+        ArchiveRunResult result = new ArchiveRunResult(bundles, members, failedBundles,
+                (System.nanoTime() - start) / 1_000_000);
+        LOGGER.info("Archive run finished: bundles=" + bundles + " members=" + members
+                + " failedBundles=" + failedBundles + " elapsedMs=" + result.elapsedMillis());
+        return result;
+    }
+}
@@ -0,0 +1,31 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+public record ArchiveLayout(int shards) {
+
+    public ArchiveLayout {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be > 0");
+        }
+    }
+
+    public int shardOf(String cnpj) {
+        return Math.floorMod(cnpj.hashCode(), shards);
+    }
+
+    public String dayPrefix(BlobArchivePort.Area area, LocalDate day) {
+        return area.name().toLowerCase(Locale.ROOT) + "/" + day + "/";
+    }
+
+    public String shardPrefix(BlobArchivePort.Area area, LocalDate day, int shard) {
+        return dayPrefix(area, day) + String.format(Locale.ROOT, "%03d", shard) + "-";
+    }
+
+    public String bundleKey(BlobArchivePort.Area area, LocalDate day, int shard, long runId) {
+        return shardPrefix(area, day, shard) + runId;
+    }
+}
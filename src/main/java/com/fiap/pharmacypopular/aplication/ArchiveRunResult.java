@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.aplication;
+
+public record ArchiveRunResult(
+        int bundles,
+        int members,
+        int failedBundles,
+        long elapsedMillis
+) {}
@@ -1,6 +1,6 @@
 package com.fiap.pharmacypopular.aplication;
 
-public record BatchRunResult(int eligible, int processed, int failed, int duplicates) {
+public record BatchRunResult(int eligible, int processed, int failed, int duplicates, int deferred, long firstProcessedMillis) {
 
 }
 
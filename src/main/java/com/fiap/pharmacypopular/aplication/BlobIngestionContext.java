@@ -8,4 +8,19 @@ public record BlobIngestionContext(
         String fileName,
         String cnpj,
         LocalDate referenceDate
-) {}
+) {
+
+    static String fileNameFromBlobPath(String blobPath) {
+        return blobPath.substring(blobPath.lastIndexOf('/') + 1);
+    }
+
+    static LocalDate referenceDateFromFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot < 0 ? fileName : fileName.substring(0, dot);
+        String[] parts = base.split("_");
+        if (parts.length < 4) {
+            throw new IllegalArgumentException("Invalid filename pattern: " + fileName);
+        }
+        return LocalDate.parse(parts[2]);
+    }
+}
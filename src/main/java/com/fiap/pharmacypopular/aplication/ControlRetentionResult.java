@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.aplication;
+
+import java.util.List;
+
+public record ControlRetentionResult(
+        List<String> createdPartitions,
+        List<String> droppedPartitions
+) {}
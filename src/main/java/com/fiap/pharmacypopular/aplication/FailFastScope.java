@@ -0,0 +1,82 @@
+package com.fiap.pharmacypopular.aplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+public final class FailFastScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> subtasks = new ArrayList<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    public <T> Future<T> fork(Supplier<T> task) {
+        Future<T> future = executor.submit(() -> {
+            try {
+                return task.get();
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    cancelAll();
+                }
+                throw t;
+            }
+        });
+        synchronized (subtasks) {
+            subtasks.add(future);
+        }
+        if (failure.get() != null) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    public Future<Void> fork(Runnable task) {
+        return fork(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public void join() {
+        List<Future<?>> snapshot;
+        synchronized (subtasks) {
+            snapshot = List.copyOf(subtasks);
+        }
+        try {
+            for (Future<?> f : snapshot) {
+                try {
+                    f.get();
+                } catch (ExecutionException | CancellationException ignored) {
+                    // the first failure is rethrown below
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelAll();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for subtasks", e);
+        }
+
+        Throwable t = failure.get();
+        if (t instanceof RuntimeException re) throw re;
+        if (t instanceof Error err) throw err;
+    }
+
+    private void cancelAll() {
+        synchronized (subtasks) {
+            subtasks.forEach(f -> f.cancel(true));
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdownNow();
+        executor.close();
+    }
+}
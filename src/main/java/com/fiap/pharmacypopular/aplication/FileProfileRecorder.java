@@ -0,0 +1,121 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public class FileProfileRecorder {
+
+    public enum Stage {
+        DOWNLOAD,
+        PARSE,
+        RESOLVE,
+        UPSERT
+    }
+
+    private final Map<Stage, Long> millisByStage = new EnumMap<>(Stage.class);
+    private final long startNanos = System.nanoTime();
+    private final IngestionFileEvent fileEvent = new IngestionFileEvent();
+    private IngestionStageEvent stageEvent;
+    private String blobPath;
+    private String cnpj;
+    private Long fileSizeBytes;
+    private Integer rowCount;
+    private Integer acceptedRows;
+    private Integer rejectedRows;
+    private Integer distinctMedicines;
+    private Integer changedRows;
+
+    public FileProfileRecorder() {
+        fileEvent.begin();
+    }
+
+    public void file(String blobPath, String cnpj) {
+        this.blobPath = blobPath;
+        this.cnpj = cnpj;
+    }
+
+    public long start() {
+        stageEvent = new IngestionStageEvent();
+        stageEvent.begin();
+        return System.nanoTime();
+    }
+
+    public void stop(Stage stage, long startNanos) {
+        millisByStage.merge(stage, (System.nanoTime() - startNanos) / 1_000_000, Long::sum);
+
+        IngestionStageEvent event = stageEvent;
+        stageEvent = null;
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage.name();
+            event.blobPath = blobPath;
+            event.cnpj = cnpj;
+            event.bytes = orZero(fileSizeBytes);
+            event.rows = orZero(rowCount);
+            event.commit();
+        }
+    }
+
+    public long finish(String outcome) {
+        fileEvent.end();
+        if (fileEvent.shouldCommit()) {
+            fileEvent.blobPath = blobPath;
+            fileEvent.cnpj = cnpj;
+            fileEvent.outcome = outcome;
+            fileEvent.bytes = orZero(fileSizeBytes);
+            fileEvent.rows = orZero(rowCount);
+            fileEvent.acceptedRows = orZero(acceptedRows);
+            fileEvent.rejectedRows = orZero(rejectedRows);
+            fileEvent.changedRows = orZero(changedRows);
+            fileEvent.commit();
+        }
+        return System.nanoTime() - startNanos;
+    }
+
+    public void fileSize(long bytes) {
+        this.fileSizeBytes = bytes;
+    }
+
+    public void parsed(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public void rows(int rowCount, int acceptedRows, int rejectedRows, int distinctMedicines) {
+        this.rowCount = rowCount;
+        this.acceptedRows = acceptedRows;
+        this.rejectedRows = rejectedRows;
+        this.distinctMedicines = distinctMedicines;
+    }
+
+    public void changedRows(int changedRows) {
+        this.changedRows = changedRows;
+    }
+
+    public FileProcessingProfile toProfile() {
+        return new FileProcessingProfile(
+                fileSizeBytes,
+                rowCount,
+                acceptedRows,
+                rejectedRows,
+                distinctMedicines,
+                changedRows,
+                millisByStage.get(Stage.DOWNLOAD),
+                millisByStage.get(Stage.PARSE),
+                millisByStage.get(Stage.RESOLVE),
+                millisByStage.get(Stage.UPSERT)
+        );
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
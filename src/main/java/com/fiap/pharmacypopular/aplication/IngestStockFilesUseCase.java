@@ -1,78 +1,314 @@
 package com.fiap.pharmacypopular.aplication;
 
+import com.fiap.pharmacypopular.adapter.exception.CircuitOpenException;
+import com.fiap.pharmacypopular.adapter.exception.RetriesExhaustedException;
 import com.fiap.pharmacypopular.adapter.exception.DestinationAlreadyExistsException;
+import com.fiap.pharmacypopular.aplication.FileProfileRecorder.Stage;
+import com.fiap.pharmacypopular.aplication.exception.FileValidationException;
+import com.fiap.pharmacypopular.aplication.model.RowRejection;
 import com.fiap.pharmacypopular.aplication.model.StockFileModel;
 import com.fiap.pharmacypopular.aplication.model.StockModel;
-import com.fiap.pharmacypopular.aplication.service.FileStockValidatorService;
-import com.fiap.pharmacypopular.aplication.service.StockFileParserService;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+import com.fiap.pharmacypopular.aplication.service.InboxDiscoveryService;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormat;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormats;
 import com.fiap.pharmacypopular.aplication.service.StockMedicationCodeService;
 import com.fiap.pharmacypopular.aplication.service.StockProcessorStatusService;
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+import com.fiap.pharmacypopular.domain.model.IngestionControlModel;
 import com.fiap.pharmacypopular.domain.model.StockEntry;
+import com.fiap.pharmacypopular.domain.model.StockFileBatch;
+import com.fiap.pharmacypopular.domain.model.StockFileBatchResult;
 import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
 import com.fiap.pharmacypopular.domain.port.IngestionControlRepositoryPort;
 import com.fiap.pharmacypopular.domain.port.PharmacyRepositoryPort;
 import com.fiap.pharmacypopular.domain.port.StockRepositoryPort;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import static com.fiap.pharmacypopular.domain.model.IngestStatus.FAILED;
 import static com.fiap.pharmacypopular.domain.model.IngestStatus.PROCESSED;
+import static com.fiap.pharmacypopular.domain.model.IngestStatus.PROCESSING;
 
 public class IngestStockFilesUseCase {
 
     private static final Logger LOGGER = Logger.getLogger("IngestStockFilesUseCase");
+    private static final int MAX_LOGGED_QUEUE_WAITS = 10;
+    private static final long DIGEST_OFFSET = 0xcbf29ce484222325L;
+    private static final long DIGEST_PRIME = 0x100000001b3L;
 
     private final BlobStoragePort blobPort;
     private final int minAgeMinutes;
-    private final FileStockValidatorService validator;
+    private final StockFileFormats formats;
     private final PharmacyRepositoryPort pharmacyRepo;
     private final IngestionControlRepositoryPort ingestionRepo;
-    private final StockFileParserService csvParser;
     private final StockProcessorStatusService rowsProcessor;
     private final StockMedicationCodeService rowsMedicationCodeResolver;
     private final StockRepositoryPort stockRepo;
+    private final RowQuarantinePolicy quarantinePolicy;
+    private final int chunkSize;
+    private final InboxDiscoveryService inboxDiscovery;
+    private final boolean intraFileConcurrency;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final PharmacyFairScheduler scheduler;
+    private final StockGroupCommitBuffer.Settings groupCommitSettings;
+    private final SlowIngestionSnapshots slowSnapshots;
+
+    private record ResolvedFile(List<StockModel> stock, List<RowRejection> rejections) {}
+
+    private enum Outcome { PROCESSED, FAILED, DUPLICATE, DEFERRED, BUFFERED }
+
+    private static final class RunCounters {
+        private final long runStart;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final AtomicInteger deferred = new AtomicInteger();
+        private final AtomicLong firstProcessedMillis = new AtomicLong(-1);
+        private final AtomicBoolean paused = new AtomicBoolean();
+        private final PharmacyFairScheduler.Run schedule;
+        private final StockGroupCommitBuffer groupCommit;
+
+        private RunCounters(long runStart, PharmacyFairScheduler.Run schedule, StockGroupCommitBuffer groupCommit) {
+            this.runStart = runStart;
+            this.schedule = schedule;
+            this.groupCommit = groupCommit;
+        }
+    }
 
-    public IngestStockFilesUseCase(BlobStoragePort blobPort, int minAgeMinutes, FileStockValidatorService validator,
+    public IngestStockFilesUseCase(BlobStoragePort blobPort, int minAgeMinutes, StockFileFormats formats,
                                    PharmacyRepositoryPort pharmacyRepo, IngestionControlRepositoryPort ingestionRepo,
-                                   StockFileParserService csvParser, StockProcessorStatusService rowsProcessor,
-                                   StockMedicationCodeService rowsMedicationCodeResolver, StockRepositoryPort stockRepo
+                                   StockProcessorStatusService rowsProcessor,
+                                   StockMedicationCodeService rowsMedicationCodeResolver, StockRepositoryPort stockRepo,
+                                   RowQuarantinePolicy quarantinePolicy, int chunkSize,
+                                   InboxDiscoveryService inboxDiscovery, boolean intraFileConcurrency,
+                                   AdaptiveConcurrencyLimiter concurrencyLimiter, PharmacyFairScheduler scheduler,
+                                   StockGroupCommitBuffer.Settings groupCommitSettings,
+                                   SlowIngestionSnapshots slowSnapshots
     ) {
         this.blobPort = blobPort;
         this.minAgeMinutes = minAgeMinutes;
-        this.validator = validator;
+        this.formats = formats;
         this.pharmacyRepo = pharmacyRepo;
         this.ingestionRepo = ingestionRepo;
-        this.csvParser = csvParser;
         this.rowsProcessor = rowsProcessor;
         this.rowsMedicationCodeResolver = rowsMedicationCodeResolver;
         this.stockRepo = stockRepo;
+        this.quarantinePolicy = quarantinePolicy;
+        this.chunkSize = chunkSize;
+        this.inboxDiscovery = inboxDiscovery;
+        this.intraFileConcurrency = intraFileConcurrency;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.scheduler = scheduler;
+        this.groupCommitSettings = groupCommitSettings;
+        this.slowSnapshots = slowSnapshots;
     }
 
     public BatchRunResult execute() {
+        long runStart = System.nanoTime();
+        IngestionRunEvent runEvent = new IngestionRunEvent();
+        runEvent.begin();
         OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(minAgeMinutes);
-        List<BlobStoragePort.BlobRef> blobs = blobPort.listInboxBlobs().stream()
-                .filter(b -> b.lastModified().isBefore(cutoff))
-                .sorted(Comparator.comparing(BlobStoragePort.BlobRef::lastModified))
-                .toList();
+        InboxDiscoveryService.Discovery discovery = inboxDiscovery.discover(cutoff);
+        List<BlobStoragePort.BlobRef> blobs = discovery.fullListing()
+                ? discovery.blobs().stream().filter(b -> b.lastModified().isBefore(cutoff)).toList()
+                : discovery.blobs();
+
+        PharmacyFairScheduler.Run schedule = scheduler.start(blobs, IngestStockFilesUseCase::pharmacyKey);
+        RunCounters counters;
+        try (StockGroupCommitBuffer groupCommit = groupCommitSettings == null
+                ? null
+                : new StockGroupCommitBuffer(stockRepo, groupCommitSettings)) {
+            counters = new RunCounters(runStart, schedule, groupCommit);
+            if (concurrencyLimiter == null) {
+                processSequentially(schedule, counters);
+            } else {
+                processConcurrently(schedule, counters);
+            }
+        }
+        logQueueWait(schedule);
+
+        int processed = counters.processed.get();
+        int failed = counters.failed.get();
+        int duplicates = counters.duplicates.get();
+        int deferred = counters.paused.get()
+                ? blobs.size() - processed - failed - duplicates
+                : counters.deferred.get() + schedule.dropped();
+        if (deferred > 0) {
+            LOGGER.warning("Files deferred, dependency unavailable: deferred=" + deferred
+                    + " paused=" + counters.paused.get());
+        }
+        if (deferred == 0) {
+            inboxDiscovery.commit(discovery);
+        }
+        BatchRunResult result = new BatchRunResult(blobs.size(), processed, failed, duplicates, deferred,
+                counters.firstProcessedMillis.get());
+        runEvent.finish(result);
+        slowSnapshots.runFinished(System.nanoTime() - runStart, result);
+        return result;
+    }
+
+    private void processSequentially(PharmacyFairScheduler.Run schedule, RunCounters counters) {
+        try {
+            PharmacyFairScheduler.Ticket ticket;
+            while ((ticket = nextTicket(schedule, counters)) != null) {
+                schedule.complete(ticket, completion(processFile(ticket, new FileProfileRecorder(), counters)));
+                if (counters.paused.get()) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processConcurrently(PharmacyFairScheduler.Run schedule, RunCounters counters) {
+        int workers = Math.min(concurrencyLimiter.maxLimit(), schedule.pharmacies());
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, workers),
+                Thread.ofPlatform().name("ingest-worker-", 0).daemon(true).factory())) {
+            for (int i = 0; i < workers; i++) {
+                executor.submit(() -> {
+                    try {
+                        boolean more = true;
+                        while (more && !counters.paused.get()) {
+                            more = processNext(schedule, counters);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        if (counters.paused.get()) {
+                            schedule.cancel();
+                        }
+                    }
+                });
+            }
+        }
+
+        AdaptiveConcurrencyLimiter.Stats stats = concurrencyLimiter.stats();
+        LOGGER.info("Concurrency: limit=" + stats.limit() + " peakInFlight=" + stats.peakInFlight()
+                + " increases=" + stats.increases() + " decreases=" + stats.decreases()
+                + " baselineMicrosPerRow=" + String.format(Locale.ROOT, "%.1f", stats.baselineMicrosPerRow())
+                + " pharmacies=" + schedule.pharmacies() + " workers=" + workers);
+    }
+
+    private void logQueueWait(PharmacyFairScheduler.Run schedule) {
+        List<PharmacyFairScheduler.PharmacyWait> waits = schedule.waits();
+        if (waits.isEmpty()) {
+            return;
+        }
+
+        long[] firstWaits = waits.stream()
+                .filter(w -> w.firstWaitMillis() >= 0)
+                .mapToLong(PharmacyFairScheduler.PharmacyWait::firstWaitMillis)
+                .sorted()
+                .toArray();
+        long maxWait = waits.stream().mapToLong(PharmacyFairScheduler.PharmacyWait::maxWaitMillis).max().orElse(0);
+        LOGGER.info("Queue wait: pharmacies=" + waits.size()
+                + " firstDispatchP50Ms=" + percentile(firstWaits, 0.50)
+                + " firstDispatchP95Ms=" + percentile(firstWaits, 0.95)
+                + " maxWaitMs=" + maxWait);
+
+        waits.stream()
+                .sorted(Comparator.comparingLong(PharmacyFairScheduler.PharmacyWait::maxWaitMillis).reversed())
+                .limit(MAX_LOGGED_QUEUE_WAITS)
+                .forEach(w -> LOGGER.info("Queue wait: cnpj=" + w.pharmacy() + " weight=" + w.weight()
+                        + " files=" + w.files() + " dispatched=" + w.dispatched() + " dropped=" + w.dropped()
+                        + " firstWaitMs=" + w.firstWaitMillis() + " maxWaitMs=" + w.maxWaitMillis()));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private boolean processNext(PharmacyFairScheduler.Run schedule, RunCounters counters) throws InterruptedException {
+        concurrencyLimiter.acquire();
+        PharmacyFairScheduler.Ticket ticket = nextTicket(schedule, counters);
+        if (ticket == null) {
+            concurrencyLimiter.abandon();
+            return false;
+        }
+
+        FileProfileRecorder profile = new FileProfileRecorder();
+        Outcome outcome = null;
+        try {
+            outcome = processFile(ticket, profile, counters);
+        } finally {
+            schedule.complete(ticket, completion(outcome));
+            FileProcessingProfile p = profile.toProfile();
+            concurrencyLimiter.release(p.upsertMillis() == null ? 0 : p.upsertMillis() * 1_000_000,
+                    p.acceptedRows() == null ? 0 : p.acceptedRows());
+        }
+        return true;
+    }
+
+    private PharmacyFairScheduler.Ticket nextTicket(PharmacyFairScheduler.Run schedule, RunCounters counters)
+            throws InterruptedException {
+        if (counters.groupCommit != null && schedule.stalled()) {
+            counters.groupCommit.flush();
+        }
+        return schedule.take();
+    }
 
-        int processed = 0;
-        int failed = 0;
-        int duplicates = 0;
+    private static PharmacyFairScheduler.Completion completion(Outcome outcome) {
+        if (outcome == Outcome.BUFFERED) {
+            return PharmacyFairScheduler.Completion.HOLD;
+        }
+        if (outcome == Outcome.DEFERRED) {
+            return PharmacyFairScheduler.Completion.CLOSE;
+        }
+        return PharmacyFairScheduler.Completion.NEXT;
+    }
 
-        for (BlobStoragePort.BlobRef b : blobs) {
-            BlobIngestionContext ctx = null;
-            Long ingestionId = null;
-            try{
-                ctx = buildContext(b);
+    private Outcome processFile(PharmacyFairScheduler.Ticket ticket, FileProfileRecorder profile,
+                                RunCounters counters) {
+        Outcome outcome = null;
+        try {
+            outcome = processBlob(ticket, profile, counters);
+            return outcome;
+        } finally {
+            long elapsedNanos = profile.finish(outcome == null ? "ERROR" : outcome.name());
+            slowSnapshots.fileFinished(ticket.blob().name(), elapsedNanos);
+        }
+    }
 
-                if (handleIdempotencyAndReconcile(ctx)) {
-                    duplicates++;
-                    continue;
+    private Outcome processBlob(PharmacyFairScheduler.Ticket ticket, FileProfileRecorder profile,
+                                RunCounters counters) {
+        BlobStoragePort.BlobRef b = ticket.blob();
+        BlobIngestionContext ctx = null;
+        Long ingestionId = null;
+        try{
+            ctx = buildContext(b);
+            profile.file(ctx.blobPath(), ctx.cnpj());
+
+            var existing = ingestionRepo.findByBlobPathAndEtag(ctx.blobPath(), ctx.etag());
+            IngestionControlModel interrupted = null;
+            if (existing.isPresent() && existing.get().status() == PROCESSING) {
+                interrupted = existing.get();
+                ingestionId = interrupted.id();
+            } else {
+                if (handleIdempotencyAndReconcile(ctx, existing)) {
+                    counters.duplicates.incrementAndGet();
+                    return Outcome.DUPLICATE;
                 }
 
                 ingestionId = ingestionRepo.startProcessing(
@@ -80,54 +316,146 @@ public class IngestStockFilesUseCase {
                 ).orElse(null);
 
                 if (ingestionId == null) {
-                    duplicates++;
-                    continue;
+                    var current = ingestionRepo.findByBlobPathAndEtagConsistent(ctx.blobPath(), ctx.etag());
+                    if (current.isPresent() && current.get().status() != PROCESSING) {
+                        handleIdempotencyAndReconcile(ctx, current);
+                    }
+                    counters.duplicates.incrementAndGet();
+                    return Outcome.DUPLICATE;
                 }
+            }
 
-                if (!pharmacyRepo.existsByCnpj(ctx.cnpj())) {
-                    failed++;
-                    fail(ingestionId, ctx.blobPath(), "Pharmacy CNPJ not found in database: " + ctx.cnpj());
-                    continue;
-                }
+            ResolvedFile resolved = checkPharmacyAndResolve(b, ctx, profile);
+            List<StockModel> stockWithStatus = resolved.stock();
+            List<RowRejection> rejections = resolved.rejections();
+
+            List<StockEntry> entries = mapperToEntry(stockWithStatus);
+            int resumeFrom = resumePoint(interrupted, entries, ctx.blobPath());
+            StockGroupCommitBuffer groupCommit = counters.groupCommit;
+            if (groupCommit != null && resumeFrom == 0 && groupCommit.accepts(entries.size())) {
+                groupCommit.add(new StockFileBatch(ingestionId, entries, profile.toProfile()),
+                        groupCommitListener(ticket, ingestionId, ctx.blobPath(), stockWithStatus.size(), rejections,
+                                profile, counters));
+                return Outcome.BUFFERED;
+            }
 
-                byte[] bytes = blobPort.download(ctx.blobPath());
-                validator.validate(bytes, ctx.fileName());
-                List<StockFileModel> rows = csvParser.parse(bytes, ctx.fileName(), ctx.cnpj(), ctx.referenceDate());
-                List<StockModel> stockWithCode = rowsMedicationCodeResolver.process(rows);
-                List<StockModel> stockWithStatus = rowsProcessor.process(stockWithCode);
-
-                stockRepo.upsertAll(mapperToEntry(stockWithStatus));
-                succeed(ingestionId, ctx.blobPath());
-                processed++;
-            } catch (DestinationAlreadyExistsException e) {
-                duplicates++;
-                if (ingestionId != null) {
-                    ingestionRepo.markProcessed(ingestionId);
-                }
-                String blobPath = safeBlobPath(ctx,b);
+            long stageStart = profile.start();
+            profile.changedRows(upsert(ingestionId, entries, resumeFrom));
+            profile.stop(Stage.UPSERT, stageStart);
+
+            reportRejections(ctx.blobPath(), stockWithStatus.size(), rejections);
+            succeed(ingestionId, ctx.blobPath(), profile);
+            counters.processed.incrementAndGet();
+            counters.firstProcessedMillis.compareAndSet(-1, (System.nanoTime() - counters.runStart) / 1_000_000);
+            return Outcome.PROCESSED;
+        } catch (DestinationAlreadyExistsException e) {
+            counters.duplicates.incrementAndGet();
+            if (ingestionId != null) {
+                markProcessedSafely(ingestionId);
+            }
+            String blobPath = safeBlobPath(ctx,b);
+            moveToProcessedSafely(blobPath);
+            LOGGER.warning("Duplicate target detected (not moving): blob=" + blobPath + " reason=" + e.getMessage());
+            return Outcome.DUPLICATE;
+        } catch (Exception e) {
+            String blobPath = safeBlobPath(ctx,b);
+            if (dependencyUnavailable(e)) {
+                defer(blobPath, e, counters);
+                return Outcome.DEFERRED;
+            }
+            counters.failed.incrementAndGet();
+            fail(ingestionId, blobPath, e.getMessage(), profile);
+            return Outcome.FAILED;
+        }
+    }
+
+    private StockGroupCommitBuffer.Listener groupCommitListener(PharmacyFairScheduler.Ticket ticket, long ingestionId,
+                                                                String blobPath, int accepted,
+                                                                List<RowRejection> rejections,
+                                                                FileProfileRecorder profile, RunCounters counters) {
+        return new StockGroupCommitBuffer.Listener() {
+            @Override
+            public void committed(StockFileBatchResult result) {
+                profile.changedRows(result.changedRows());
+                reportRejectionsSafely(blobPath, accepted, rejections);
                 moveToProcessedSafely(blobPath);
-                LOGGER.warning("Duplicate target detected (not moving): blob=" + blobPath + " reason=" + e.getMessage());
-            } catch (Exception e) {
-                failed++;
-                String blobPath = safeBlobPath(ctx,b);
-                fail(ingestionId, blobPath, e.getMessage());
+                counters.processed.incrementAndGet();
+                counters.firstProcessedMillis.compareAndSet(-1, (System.nanoTime() - counters.runStart) / 1_000_000);
+                counters.schedule.release(ticket, PharmacyFairScheduler.Completion.NEXT);
+            }
+
+            @Override
+            public void rejected(StockFileBatchResult result) {
+                counters.failed.incrementAndGet();
+                fail(ingestionId, blobPath, result.error(), profile);
+                counters.schedule.release(ticket, PharmacyFairScheduler.Completion.NEXT);
+            }
+
+            @Override
+            public void failed(RuntimeException error) {
+                if (dependencyUnavailable(error)) {
+                    defer(blobPath, error, counters);
+                    counters.schedule.release(ticket, PharmacyFairScheduler.Completion.CLOSE);
+                    return;
+                }
+                counters.failed.incrementAndGet();
+                fail(ingestionId, blobPath, error.getMessage(), profile);
+                counters.schedule.release(ticket, PharmacyFairScheduler.Completion.NEXT);
             }
+        };
+    }
+
+    private void reportRejections(String blobPath, int accepted, List<RowRejection> rejections) {
+        if (rejections.isEmpty()) {
+            return;
+        }
+        blobPort.writeRejectReport(blobPath, rejectReport(rejections));
+        LOGGER.warning("Quarantined rows: blob=" + blobPath + " accepted=" + accepted
+                + " rejected=" + rejections.size());
+    }
+
+    private void reportRejectionsSafely(String blobPath, int accepted, List<RowRejection> rejections) {
+        try {
+            reportRejections(blobPath, accepted, rejections);
+        } catch (Exception ex) {
+            LOGGER.severe("Failed writing reject report: blob=" + blobPath + " " + ex.getMessage());
         }
-        return new BatchRunResult(blobs.size(), processed, failed, duplicates);
+    }
+
+    private static String pharmacyKey(String blobPath) {
+        String[] parts = blobPath.split("/");
+        return parts.length >= 3 ? parts[1] : blobPath;
+    }
+
+    public void warmUp() {
+        String cnpj = "00000000000000";
+        LocalDate referenceDate = LocalDate.now(ZoneOffset.UTC);
+        String fileName = "warmup_" + cnpj + "_" + referenceDate + "_0.csv";
+        byte[] sample = ("cnpj;medicine_name;quantity;reference_date\n"
+                + cnpj + ";WARMUP;5;" + referenceDate + "\n").getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer content = ByteBuffer.wrap(sample);
+        StockFileFormat format = formats.forFile(fileName);
+        format.validate(content, fileName);
+        format.validateHeader(content, fileName);
+        format.parseAccepting(content, fileName, cnpj, referenceDate);
+        List<StockFileModel> rows = format.parse(content, fileName, cnpj, referenceDate);
+        List<StockModel> stock = rows.stream()
+                .map(r -> new StockModel(r.cnpj(), r.medicineName(), "WARMUP", r.quantity(), r.referenceDate(), null))
+                .toList();
+        mapperToEntry(rowsProcessor.process(stock));
     }
 
     private BlobIngestionContext buildContext(BlobStoragePort.BlobRef b) {
         String blobPath = b.name();
         String etag = b.etag();
-        String fileName = fileNameFromBlobPath(blobPath);
+        String fileName = BlobIngestionContext.fileNameFromBlobPath(blobPath);
         String cnpj = extractCnpjFromBlobPath(blobPath);
-        LocalDate referenceDate = extractReferenceDateFromFileName(fileName);
+        LocalDate referenceDate = BlobIngestionContext.referenceDateFromFileName(fileName);
         return new BlobIngestionContext(blobPath, etag, fileName, cnpj, referenceDate);
     }
 
-    private boolean handleIdempotencyAndReconcile(BlobIngestionContext ctx) {
-        var existing = ingestionRepo.findByBlobPathAndEtag(ctx.blobPath(), ctx.etag());
-
+    private boolean handleIdempotencyAndReconcile(BlobIngestionContext ctx, Optional<IngestionControlModel> existing) {
         if (existing.isEmpty()){
             return false;
         }
@@ -147,6 +475,123 @@ public class IngestStockFilesUseCase {
         return true;
     }
 
+    private ResolvedFile checkPharmacyAndResolve(BlobStoragePort.BlobRef b, BlobIngestionContext ctx,
+                                                 FileProfileRecorder profile) {
+        if (!intraFileConcurrency) {
+            requirePharmacy(ctx.cnpj());
+            return downloadAndResolve(b, ctx, profile);
+        }
+
+        try (FailFastScope scope = new FailFastScope()) {
+            scope.fork(() -> requirePharmacy(ctx.cnpj()));
+            Future<ResolvedFile> resolved = scope.fork(() -> downloadAndResolve(b, ctx, profile));
+            scope.join();
+            return resolved.resultNow();
+        }
+    }
+
+    private void requirePharmacy(String cnpj) {
+        if (!pharmacyRepo.existsByCnpj(cnpj)) {
+            throw new FileValidationException("Pharmacy CNPJ not found in database: " + cnpj);
+        }
+    }
+
+    private ResolvedFile downloadAndResolve(BlobStoragePort.BlobRef b, BlobIngestionContext ctx,
+                                            FileProfileRecorder profile) {
+        long stageStart = profile.start();
+        ByteBuffer content = blobPort.downloadContent(b);
+        profile.fileSize(content.remaining());
+        profile.stop(Stage.DOWNLOAD, stageStart);
+
+        stageStart = profile.start();
+        List<RowRejection> rejections = new ArrayList<>();
+        List<StockFileModel> rows = parseRows(content, ctx, rejections);
+        int rowCount = rows.size() + rejections.size();
+        profile.parsed(rowCount);
+        profile.stop(Stage.PARSE, stageStart);
+
+        stageStart = profile.start();
+        List<StockModel> stockWithStatus = resolveRows(rows, rejections, ctx.fileName());
+        profile.stop(Stage.RESOLVE, stageStart);
+        profile.rows(rowCount, stockWithStatus.size(), rejections.size(), distinctMedicines(stockWithStatus));
+
+        return new ResolvedFile(stockWithStatus, rejections);
+    }
+
+    private List<StockFileModel> parseRows(ByteBuffer bytes, BlobIngestionContext ctx, List<RowRejection> rejections) {
+        StockFileFormat format = formats.forFile(ctx.fileName());
+        if (!quarantinePolicy.enabled()) {
+            format.validate(bytes, ctx.fileName());
+            return format.parse(bytes, ctx.fileName(), ctx.cnpj(), ctx.referenceDate());
+        }
+
+        format.validateHeader(bytes, ctx.fileName());
+        StockParseResult parsed = format.parseAccepting(bytes, ctx.fileName(), ctx.cnpj(), ctx.referenceDate());
+        rejections.addAll(parsed.rejections());
+        return parsed.rows();
+    }
+
+    private List<StockModel> resolveRows(List<StockFileModel> rows, List<RowRejection> rejections, String fileName) {
+        List<StockModel> stockWithCode;
+        if (quarantinePolicy.enabled()) {
+            stockWithCode = rowsMedicationCodeResolver.processAccepting(rows, rejections);
+            checkRejectRatio(stockWithCode.size(), rejections.size(), fileName);
+        } else {
+            stockWithCode = rowsMedicationCodeResolver.process(rows);
+        }
+        return rowsProcessor.process(stockWithCode);
+    }
+
+    private int resumePoint(IngestionControlModel interrupted, List<StockEntry> entries, String blobPath) {
+        if (interrupted == null) {
+            return 0;
+        }
+
+        int committed = chunkSize > 0 ? interrupted.committedRows() : 0;
+        if (committed > 0 && (committed > entries.size() || interrupted.committedDigest() == null
+                || digest(DIGEST_OFFSET, entries.subList(0, committed)) != interrupted.committedDigest())) {
+            LOGGER.warning("Resume checkpoint does not match the accepted rows, restarting file: id="
+                    + interrupted.id() + " blob=" + blobPath + " committedRows=" + committed
+                    + " acceptedRows=" + entries.size());
+            committed = 0;
+        }
+        LOGGER.info("Resuming interrupted ingestion: id=" + interrupted.id() + " blob=" + blobPath
+                + " fromRow=" + committed);
+        return committed;
+    }
+
+    private int upsert(long ingestionId, List<StockEntry> entries, int resumeFrom) {
+        if (chunkSize <= 0) {
+            return stockRepo.upsertAll(entries);
+        }
+
+        int start = Math.min(resumeFrom, entries.size());
+        long digest = digest(DIGEST_OFFSET, entries.subList(0, start));
+        int changed = 0;
+        for (int from = start; from < entries.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, entries.size());
+            List<StockEntry> chunk = entries.subList(from, to);
+            digest = digest(digest, chunk);
+            changed += stockRepo.upsertChunk(ingestionId, chunk, to, digest);
+        }
+        return changed;
+    }
+
+    private static long digest(long seed, List<StockEntry> entries) {
+        long hash = seed;
+        for (StockEntry e : entries) {
+            String row = e.cnpj() + ';' + e.medicineCode() + ';' + e.quantity() + ';' + e.status() + '\n';
+            for (byte b : row.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * DIGEST_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    private int distinctMedicines(List<StockModel> rows) {
+        return (int) rows.stream().map(StockModel::medicineCode).distinct().count();
+    }
+
     private void moveToErrorSafely(String blobPath) {
         try {
             blobPort.moveToError(blobPath);
@@ -163,38 +608,46 @@ public class IngestStockFilesUseCase {
         }
     }
 
-    private void succeed(long ingestionId, String blobPath) {
-        ingestionRepo.markProcessed(ingestionId);
+    private void succeed(long ingestionId, String blobPath, FileProfileRecorder profile) {
+        ingestionRepo.markProcessed(ingestionId, profile.toProfile());
         moveToProcessedSafely(blobPath);
     }
 
-    private String extractCnpjFromBlobPath(String blobPath) {
-        String[] parts = blobPath.split("/");
-        if (parts.length < 3 || !"inbox".equals(parts[0])) {
-            throw new IllegalArgumentException("Invalid blob path pattern: " + blobPath);
+    private void checkRejectRatio(int accepted, int rejected, String fileName) {
+        if (accepted == 0) {
+            throw new FileValidationException("No valid rows left after quarantine (rejected=" + rejected + "): " + fileName);
+        }
+        double ratio = (double) rejected / (accepted + rejected);
+        if (ratio > quarantinePolicy.maxRejectRatio()) {
+            throw new FileValidationException("Reject ratio " + String.format(Locale.ROOT, "%.3f", ratio)
+                    + " above limit " + quarantinePolicy.maxRejectRatio()
+                    + " (accepted=" + accepted + ", rejected=" + rejected + "): " + fileName);
         }
-        return parts[1];
     }
 
-    private String fileNameFromBlobPath(String blobPath) {
-        return blobPath.substring(blobPath.lastIndexOf('/') + 1);
+    private byte[] rejectReport(List<RowRejection> rejections) {
+        StringBuilder sb = new StringBuilder("line;reason\n");
+        rejections.stream()
+                .sorted(Comparator.comparingInt(RowRejection::lineNumber))
+                .forEach(r -> sb.append(r.lineNumber()).append(';')
+                        .append(r.reason().replaceAll("[;\\r\\n]", " ")).append('\n'));
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
     }
 
-    private LocalDate extractReferenceDateFromFileName(String fileName) {
-        String base = fileName.replace(".csv", "");
-        String[] parts = base.split("_");
-        if (parts.length < 4) {
-            throw new IllegalArgumentException("Invalid filename pattern: " + fileName);
+    private String extractCnpjFromBlobPath(String blobPath) {
+        String[] parts = blobPath.split("/");
+        if (parts.length < 3 || !"inbox".equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid blob path pattern: " + blobPath);
         }
-        return LocalDate.parse(parts[2]);
+        return parts[1];
     }
 
-    private void fail(Long ingestionId, String blobPath, String reason) {
+    private void fail(Long ingestionId, String blobPath, String reason, FileProfileRecorder profile) {
         LOGGER.severe("Failed processing blob=" + blobPath + " reason=" + reason);
 
         if (ingestionId != null) {
             try {
-                ingestionRepo.markFailed(ingestionId, reason);
+                ingestionRepo.markFailed(ingestionId, reason, profile.toProfile());
             } catch (Exception ex) {
                 LOGGER.severe("Failed marking ingestion as FAILED: id=" + ingestionId + " error=" + ex.getMessage());
             }
@@ -202,6 +655,36 @@ public class IngestStockFilesUseCase {
         moveToErrorSafely(blobPath);
     }
 
+    private static boolean dependencyUnavailable(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof CircuitOpenException || t instanceof RetriesExhaustedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void defer(String blobPath, Throwable error, RunCounters counters) {
+        counters.deferred.incrementAndGet();
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof CircuitOpenException) {
+                counters.paused.set(true);
+                LOGGER.warning("Pausing run, dependency unavailable: blob=" + blobPath + " reason=" + error.getMessage());
+                return;
+            }
+        }
+        LOGGER.warning("Deferring blob, dependency unavailable after retries: blob=" + blobPath
+                + " reason=" + error.getMessage());
+    }
+
+    private void markProcessedSafely(long ingestionId) {
+        try {
+            ingestionRepo.markProcessed(ingestionId);
+        } catch (Exception ex) {
+            LOGGER.severe("Failed marking ingestion as PROCESSED: id=" + ingestionId + " error=" + ex.getMessage());
+        }
+    }
+
     private String safeBlobPath(BlobIngestionContext ctx, BlobStoragePort.BlobRef b) {
         if (ctx != null) return ctx.blobPath();
         if (b != null) return b.name();
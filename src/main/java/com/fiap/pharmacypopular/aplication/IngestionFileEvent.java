@@ -0,0 +1,40 @@
+package com.fiap.pharmacypopular.aplication;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.fiap.pharmacypopular.IngestionFile")
+@Label("Stock File Ingestion")
+@Category("Pharmacy Ingestion")
+@StackTrace(false)
+class IngestionFileEvent extends Event {
+
+    @Label("Blob Path")
+    String blobPath;
+
+    @Label("CNPJ")
+    String cnpj;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("File Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Accepted Rows")
+    int acceptedRows;
+
+    @Label("Rejected Rows")
+    int rejectedRows;
+
+    @Label("Changed Rows")
+    int changedRows;
+}
@@ -0,0 +1,37 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.FileProfileSummary;
+import com.fiap.pharmacypopular.domain.port.IngestionControlRepositoryPort;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class IngestionProfileQueryUseCase {
+
+    private static final int MAX_LIMIT = 500;
+
+    private final IngestionControlRepositoryPort ingestionRepo;
+
+    public IngestionProfileQueryUseCase(IngestionControlRepositoryPort ingestionRepo) {
+        this.ingestionRepo = ingestionRepo;
+    }
+
+    public List<FileProfileSummary> slowest(Duration window, int limit) {
+        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
+        return ingestionRepo.findSlowestFiles(to.minus(window), to, clamp(limit));
+    }
+
+    public List<FileProfileSummary> largest(Duration window, int limit) {
+        OffsetDateTime to = OffsetDateTime.now(ZoneOffset.UTC);
+        return ingestionRepo.findLargestFiles(to.minus(window), to, clamp(limit));
+    }
+
+    private int clamp(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.fiap.pharmacypopular.aplication;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.fiap.pharmacypopular.IngestionRun")
+@Label("Stock Ingestion Run")
+@Category("Pharmacy Ingestion")
+@StackTrace(false)
+class IngestionRunEvent extends Event {
+
+    @Label("Eligible Files")
+    int eligible;
+
+    @Label("Processed Files")
+    int processed;
+
+    @Label("Failed Files")
+    int failed;
+
+    @Label("Duplicate Files")
+    int duplicates;
+
+    @Label("Deferred Files")
+    int deferred;
+
+    void finish(BatchRunResult result) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        eligible = result.eligible();
+        processed = result.processed();
+        failed = result.failed();
+        duplicates = result.duplicates();
+        deferred = result.deferred();
+        commit();
+    }
+}
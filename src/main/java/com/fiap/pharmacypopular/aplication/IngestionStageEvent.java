@@ -0,0 +1,31 @@
+package com.fiap.pharmacypopular.aplication;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.fiap.pharmacypopular.IngestionStage")
+@Label("Stock File Ingestion Stage")
+@Category("Pharmacy Ingestion")
+@StackTrace(false)
+class IngestionStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Blob Path")
+    String blobPath;
+
+    @Label("CNPJ")
+    String cnpj;
+
+    @Label("File Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Rows")
+    int rows;
+}
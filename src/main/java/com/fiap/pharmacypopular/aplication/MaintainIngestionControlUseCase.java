@@ -0,0 +1,43 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.IngestionControlPartitionPort;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.logging.Logger;
+
+public class MaintainIngestionControlUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("MaintainIngestionControlUseCase");
+
+    private final IngestionControlPartitionPort partitions;
+    private final int retentionMonths;
+    private final int monthsAhead;
+
+    public MaintainIngestionControlUseCase(IngestionControlPartitionPort partitions, int retentionMonths,
+                                           int monthsAhead) {
+        if (retentionMonths < 1) {
+            throw new IllegalArgumentException("retentionMonths must be >= 1");
+        }
+        this.partitions = partitions;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    public ControlRetentionResult execute() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        List<String> created = partitions.ensurePartitions(current, current.plusMonths(monthsAhead));
+        if (!created.isEmpty()) {
+            LOGGER.info("Created ingestion control partitions: " + created);
+        }
+
+        YearMonth cutoff = current.minusMonths(retentionMonths);
+        List<String> dropped = partitions.dropPartitionsBefore(cutoff);
+        LOGGER.info("Ingestion control retention finished: cutoff=" + cutoff + " created=" + created.size()
+                + " dropped=" + dropped.size() + (dropped.isEmpty() ? "" : " partitions=" + dropped));
+
+        return new ControlRetentionResult(created, dropped);
+    }
+}
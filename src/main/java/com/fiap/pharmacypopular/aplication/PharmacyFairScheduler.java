@@ -0,0 +1,206 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public class PharmacyFairScheduler {
+
+    public record Ticket(BlobStoragePort.BlobRef blob, String pharmacy, long queueWaitMillis) {}
+
+    public record PharmacyWait(String pharmacy, int weight, int files, int dispatched, int dropped,
+                               long firstWaitMillis, long maxWaitMillis) {}
+
+    public enum Completion { NEXT, HOLD, CLOSE }
+
+    private final Map<String, Integer> weights;
+
+    public PharmacyFairScheduler(Map<String, Integer> weights) {
+        this.weights = Map.copyOf(weights);
+    }
+
+    public static PharmacyFairScheduler roundRobin() {
+        return new PharmacyFairScheduler(Map.of());
+    }
+
+    public Run start(List<BlobStoragePort.BlobRef> blobs, Function<String, String> pharmacyOf) {
+        return new Run(blobs, pharmacyOf);
+    }
+
+    private static final class Lane {
+        private final String pharmacy;
+        private final int weight;
+        private final ArrayDeque<BlobStoragePort.BlobRef> files;
+        private final int total;
+        private double pass;
+        private int dispatched;
+        private int dropped;
+        private boolean holding;
+        private Completion earlyRelease;
+        private long firstWaitMillis = -1;
+        private long maxWaitMillis;
+
+        private Lane(String pharmacy, int weight, List<BlobStoragePort.BlobRef> files) {
+            this.pharmacy = pharmacy;
+            this.weight = weight;
+            this.files = new ArrayDeque<>(files);
+            this.total = files.size();
+        }
+    }
+
+    public final class Run {
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Lane> lanes = new LinkedHashMap<>();
+        private final PriorityQueue<Lane> ready = new PriorityQueue<>(Comparator
+                .comparingDouble((Lane l) -> l.pass)
+                .thenComparing(l -> l.files.peek().lastModified())
+                .thenComparing(l -> l.pharmacy));
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private int inFlight;
+        private int held;
+        private int dropped;
+        private boolean cancelled;
+
+        private Run(List<BlobStoragePort.BlobRef> blobs, Function<String, String> pharmacyOf) {
+            Map<String, List<BlobStoragePort.BlobRef>> byPharmacy = new LinkedHashMap<>();
+            blobs.stream()
+                    .sorted(Comparator.comparing(BlobStoragePort.BlobRef::lastModified))
+                    .forEach(b -> byPharmacy.computeIfAbsent(pharmacyOf.apply(b.name()), k -> new ArrayList<>()).add(b));
+
+            byPharmacy.forEach((pharmacy, files) -> {
+                Lane lane = new Lane(pharmacy, Math.max(1, weights.getOrDefault(pharmacy, 1)), files);
+                lanes.put(pharmacy, lane);
+                ready.add(lane);
+            });
+        }
+
+        public int pharmacies() {
+            return lanes.size();
+        }
+
+        public Ticket take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (!cancelled && ready.isEmpty() && inFlight > 0) {
+                    changed.await();
+                }
+                if (cancelled || ready.isEmpty()) {
+                    return null;
+                }
+
+                Lane lane = ready.poll();
+                BlobStoragePort.BlobRef blob = lane.files.poll();
+                lane.pass += 1.0 / lane.weight;
+                lane.dispatched++;
+                inFlight++;
+
+                long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                if (lane.firstWaitMillis < 0) {
+                    lane.firstWaitMillis = waitMillis;
+                }
+                lane.maxWaitMillis = Math.max(lane.maxWaitMillis, waitMillis);
+                return new Ticket(blob, lane.pharmacy, waitMillis);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void complete(Ticket ticket, Completion completion) {
+            lock.lock();
+            try {
+                Lane lane = lanes.get(ticket.pharmacy());
+                if (completion != Completion.HOLD) {
+                    finish(lane, completion);
+                } else if (lane.earlyRelease != null) {
+                    Completion release = lane.earlyRelease;
+                    lane.earlyRelease = null;
+                    finish(lane, release);
+                } else {
+                    lane.holding = true;
+                    held++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void release(Ticket ticket, Completion completion) {
+            lock.lock();
+            try {
+                Lane lane = lanes.get(ticket.pharmacy());
+                if (lane.holding) {
+                    lane.holding = false;
+                    held--;
+                    finish(lane, completion);
+                } else {
+                    lane.earlyRelease = completion;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean stalled() {
+            lock.lock();
+            try {
+                return ready.isEmpty() && held > 0 && held == inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int dropped() {
+            lock.lock();
+            try {
+                return dropped;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish(Lane lane, Completion completion) {
+            inFlight--;
+            if (completion == Completion.CLOSE) {
+                lane.dropped += lane.files.size();
+                dropped += lane.files.size();
+                lane.files.clear();
+            } else if (!cancelled && !lane.files.isEmpty()) {
+                ready.add(lane);
+            }
+            changed.signalAll();
+        }
+
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public List<PharmacyWait> waits() {
+            lock.lock();
+            try {
+                return lanes.values().stream()
+                        .map(l -> new PharmacyWait(l.pharmacy, l.weight, l.total, l.dispatched, l.dropped,
+                                l.firstWaitMillis, l.maxWaitMillis))
+                        .toList();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.StockChangeOutboxPort;
+import com.fiap.pharmacypopular.domain.port.StockChangeSinkPort;
+
+import java.util.logging.Logger;
+
+public class RelayStockChangesUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("RelayStockChangesUseCase");
+
+    private final StockChangeOutboxPort outbox;
+    private final StockChangeSinkPort sink;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public RelayStockChangesUseCase(StockChangeOutboxPort outbox, StockChangeSinkPort sink, int batchSize,
+                                    int maxBatches) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        this.outbox = outbox;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    public int execute() {
+        long start = System.nanoTime();
+        int published = 0;
+        int batches = 0;
+
+        while (maxBatches <= 0 || batches < maxBatches) {
+            int relayed = outbox.relayBatch(batchSize, sink);
+            published += relayed;
+            batches++;
+            if (relayed < batchSize) {
+                break;
+            }
+        }
+
+        LOGGER.info("Stock change relay finished: published=" + published + " batches=" + batches
+                + " elapsedMs=" + (System.nanoTime() - start) / 1_000_000);
+        return published;
+    }
+}
@@ -0,0 +1,108 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.ReplayJob;
+import com.fiap.pharmacypopular.domain.port.ReplayJobPort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+public class ReplayJobsUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("ReplayJobsUseCase");
+
+    private final ReplayJobPort jobs;
+    private final ReplayProcessedFilesUseCase replay;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final int checkpointEvery;
+    private final long sliceNanos;
+
+    public ReplayJobsUseCase(ReplayJobPort jobs, ReplayProcessedFilesUseCase replay, Duration staleAfter,
+                             int maxAttempts, int checkpointEvery, Duration slice) {
+        this.jobs = jobs;
+        this.replay = replay;
+        this.staleAfter = staleAfter;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.checkpointEvery = Math.max(1, checkpointEvery);
+        this.sliceNanos = slice.toNanos();
+    }
+
+    public long enqueue(List<String> cnpjs) {
+        long id = jobs.enqueue(cnpjs);
+        LOGGER.info("Replay job queued: id=" + id + " cnpjs=" + (cnpjs.isEmpty() ? "ALL" : String.join(",", cnpjs)));
+        return id;
+    }
+
+    public Optional<ReplayJob> find(long id) {
+        return jobs.find(id);
+    }
+
+    public Optional<ReplayJob> runNext() {
+        Optional<ReplayJob> claimed;
+        while ((claimed = jobs.claimNext(staleAfter)).isPresent()) {
+            ReplayJob job = claimed.get();
+            if (job.attempts() > maxAttempts) {
+                jobs.fail(job.id(), "Abandoned after " + (job.attempts() - 1) + " attempts without progress");
+                LOGGER.severe("Replay job abandoned: id=" + job.id() + " attempts=" + (job.attempts() - 1)
+                        + " lastCnpj=" + job.lastCnpj());
+                continue;
+            }
+
+            LOGGER.info("Replay job slice started: id=" + job.id() + " attempt=" + job.attempts()
+                    + " lastCnpj=" + job.lastCnpj());
+            try {
+                runSlice(job);
+            } catch (RuntimeException e) {
+                LOGGER.severe("Replay job failed: id=" + job.id() + " reason=" + e.getMessage());
+                jobs.fail(job.id(), e.getMessage());
+            }
+            return jobs.find(job.id());
+        }
+        return Optional.empty();
+    }
+
+    private void runSlice(ReplayJob job) {
+        long sliceStart = System.nanoTime();
+        List<String> targets = job.targets();
+        if (targets == null) {
+            targets = job.cnpjs().isEmpty() ? replay.allCnpjs() : List.copyOf(new TreeSet<>(job.cnpjs()));
+            jobs.start(job.id(), targets);
+        }
+
+        List<String> pending = job.lastCnpj() == null
+                ? targets
+                : targets.stream().filter(cnpj -> cnpj.compareTo(job.lastCnpj()) > 0).toList();
+        ReplayRunResult[] total = {new ReplayRunResult(targets.size() - pending.size(), orZero(job.replayed()),
+                orZero(job.skipped()), orZero(job.failed()), orZero(job.rows()), orZero(job.elapsedMillis()))};
+
+        replay.replay(pending, job.requestedAt(), checkpointEvery, (lastCnpj, batch) -> {
+            total[0] = total[0].plus(batch);
+            ReplayRunResult t = total[0];
+            jobs.checkpoint(job.id(), lastCnpj, t.replayed(), t.skipped(), t.failed(), t.rows(), t.elapsedMillis());
+            return System.nanoTime() - sliceStart < sliceNanos;
+        });
+
+        if (total[0].pharmacies() < targets.size()) {
+            jobs.requeue(job.id());
+            LOGGER.info("Replay job slice yielded: id=" + job.id() + " done=" + total[0].pharmacies()
+                    + "/" + targets.size());
+            return;
+        }
+        jobs.complete(job.id());
+        LOGGER.info("Replay job finished: id=" + job.id() + " pharmacies=" + targets.size()
+                + " replayed=" + total[0].replayed() + " skipped=" + total[0].skipped()
+                + " failed=" + total[0].failed() + " rows=" + total[0].rows()
+                + " elapsedMs=" + total[0].elapsedMillis());
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long orZero(Long value) {
+        return value == null ? 0 : value;
+    }
+}
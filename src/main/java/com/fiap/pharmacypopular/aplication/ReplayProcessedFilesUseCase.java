@@ -0,0 +1,333 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.aplication.model.RowRejection;
+import com.fiap.pharmacypopular.aplication.model.StockModel;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+import com.fiap.pharmacypopular.aplication.service.BundleCodec;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormat;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormats;
+import com.fiap.pharmacypopular.aplication.service.StockMedicationCodeService;
+import com.fiap.pharmacypopular.aplication.service.StockProcessorStatusService;
+import com.fiap.pharmacypopular.domain.model.StockEntry;
+import com.fiap.pharmacypopular.domain.port.BlobArchivePort;
+import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
+import com.fiap.pharmacypopular.domain.port.PharmacyRepositoryPort;
+import com.fiap.pharmacypopular.domain.port.StockRepositoryPort;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+public class ReplayProcessedFilesUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("ReplayProcessedFilesUseCase");
+    private static final long PROGRESS_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final BlobStoragePort blobPort;
+    private final StockFileFormats formats;
+    private final PharmacyRepositoryPort pharmacyRepo;
+    private final StockProcessorStatusService rowsProcessor;
+    private final StockMedicationCodeService rowsMedicationCodeResolver;
+    private final StockRepositoryPort stockRepo;
+    private final int concurrency;
+    private final BlobArchivePort archivePort;
+    private final BundleCodec bundleCodec;
+    private final ArchiveLayout archiveLayout;
+    private final int archiveLookbackDays;
+
+    @FunctionalInterface
+    public interface Checkpoint {
+        boolean reached(String lastCnpj, ReplayRunResult batch);
+    }
+
+    private record Progress(int total, long start, AtomicInteger done, AtomicLong rows, AtomicLong lastLogged) {}
+
+    private record ReplayCandidate(String name, LocalDate referenceDate, OffsetDateTime lastModified,
+                                   Supplier<ByteBuffer> content) {}
+
+    private record ArchivedMember(String bundleKey, BundleCodec.Member member) {}
+
+    private record ArchiveCache(Map<String, List<String>> bundles, Map<String, List<BundleCodec.Member>> indexes) {
+        ArchiveCache() {
+            this(new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    public ReplayProcessedFilesUseCase(BlobStoragePort blobPort, StockFileFormats formats,
+                                       PharmacyRepositoryPort pharmacyRepo,
+                                       StockProcessorStatusService rowsProcessor,
+                                       StockMedicationCodeService rowsMedicationCodeResolver,
+                                       StockRepositoryPort stockRepo, int concurrency) {
+        this(blobPort, formats, pharmacyRepo, rowsProcessor, rowsMedicationCodeResolver, stockRepo,
+                concurrency, null, null, null, 0);
+    }
+
+    public ReplayProcessedFilesUseCase(BlobStoragePort blobPort, StockFileFormats formats,
+                                       PharmacyRepositoryPort pharmacyRepo,
+                                       StockProcessorStatusService rowsProcessor,
+                                       StockMedicationCodeService rowsMedicationCodeResolver,
+                                       StockRepositoryPort stockRepo, int concurrency, BlobArchivePort archivePort,
+                                       BundleCodec bundleCodec, ArchiveLayout archiveLayout, int archiveLookbackDays) {
+        this.blobPort = blobPort;
+        this.formats = formats;
+        this.pharmacyRepo = pharmacyRepo;
+        this.rowsProcessor = rowsProcessor;
+        this.rowsMedicationCodeResolver = rowsMedicationCodeResolver;
+        this.stockRepo = stockRepo;
+        this.concurrency = Math.max(1, concurrency);
+        this.archivePort = archivePort;
+        this.bundleCodec = bundleCodec;
+        this.archiveLayout = archiveLayout;
+        this.archiveLookbackDays = archiveLookbackDays;
+    }
+
+    public List<String> allCnpjs() {
+        ArchiveCache cache = new ArchiveCache();
+        Set<String> cnpjs = new TreeSet<>(blobPort.listProcessedCnpjs());
+        if (archiveEnabled()) {
+            List<String> bundleKeys = new ArrayList<>();
+            for (LocalDate day : archiveDays()) {
+                bundleKeys.addAll(archivePort.listBundles(archiveLayout.dayPrefix(BlobArchivePort.Area.PROCESSED, day)));
+            }
+            prefetchIndexes(bundleKeys, cache);
+            for (String bundleKey : bundleKeys) {
+                cache.indexes().getOrDefault(bundleKey, List.of()).forEach(m -> cnpjs.add(m.cnpj()));
+            }
+        }
+        return List.copyOf(cnpjs);
+    }
+
+    private void prefetchIndexes(List<String> bundleKeys, ArchiveCache cache) {
+        long start = System.nanoTime();
+        Semaphore permits = new Semaphore(concurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String bundleKey : bundleKeys) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        bundleIndex(bundleKey, cache);
+                    } catch (Exception e) {
+                        LOGGER.warning("Replay could not read bundle index: bundle=" + bundleKey
+                                + " reason=" + e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        LOGGER.info("Replay read archive indexes: bundles=" + bundleKeys.size()
+                + " elapsedMs=" + (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public ReplayRunResult replay(List<String> cnpjs, OffsetDateTime requestedAt, int batchSize,
+                                  Checkpoint checkpoint) {
+        long start = System.nanoTime();
+        ArchiveCache cache = new ArchiveCache();
+        StockMedicationCodeService resolver = rowsMedicationCodeResolver.withPreloadedCodes();
+        Progress progress = new Progress(cnpjs.size(), start, new AtomicInteger(), new AtomicLong(),
+                new AtomicLong(start));
+        ReplayRunResult result = new ReplayRunResult(0, 0, 0, 0, 0, 0);
+
+        LOGGER.info("Replay started: pharmacies=" + cnpjs.size() + " concurrency=" + concurrency);
+        for (int from = 0; from < cnpjs.size(); from += batchSize) {
+            List<String> batch = cnpjs.subList(from, Math.min(from + batchSize, cnpjs.size()));
+            ReplayRunResult batchResult = replayBatch(batch, requestedAt, resolver, cache, progress);
+            result = result.plus(batchResult);
+            if (!checkpoint.reached(batch.get(batch.size() - 1), batchResult)) {
+                break;
+            }
+        }
+
+        LOGGER.info("Replay finished: pharmacies=" + result.pharmacies() + "/" + cnpjs.size()
+                + " replayed=" + result.replayed() + " skipped=" + result.skipped() + " failed=" + result.failed()
+                + " rows=" + result.rows() + " elapsedMs=" + result.elapsedMillis());
+        return result;
+    }
+
+    private ReplayRunResult replayBatch(List<String> batch, OffsetDateTime requestedAt,
+                                        StockMedicationCodeService resolver, ArchiveCache cache, Progress progress) {
+        long batchStart = System.nanoTime();
+        AtomicInteger replayed = new AtomicInteger();
+        AtomicInteger skipped = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong rows = new AtomicLong();
+        Semaphore permits = new Semaphore(concurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String cnpj : batch) {
+                executor.submit(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        int upserted = replayPharmacy(cnpj, requestedAt, resolver, cache);
+                        if (upserted < 0) {
+                            skipped.incrementAndGet();
+                        } else {
+                            replayed.incrementAndGet();
+                            rows.addAndGet(upserted);
+                            progress.rows().addAndGet(upserted);
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        LOGGER.severe("Replay failed: cnpj=" + cnpj + " reason=" + e.getMessage());
+                    } finally {
+                        permits.release();
+                        logProgress(progress);
+                    }
+                });
+            }
+        }
+
+        return new ReplayRunResult(batch.size(), replayed.get(), skipped.get(), failed.get(), rows.get(),
+                (System.nanoTime() - batchStart) / 1_000_000);
+    }
+
+    private int replayPharmacy(String cnpj, OffsetDateTime requestedAt, StockMedicationCodeService resolver,
+                               ArchiveCache cache) {
+        Optional<ReplayCandidate> latest = latestFile(cnpj);
+        if (latest.isEmpty() && archiveEnabled()) {
+            latest = latestArchivedFile(cnpj, cache);
+        }
+        if (latest.isEmpty()) {
+            LOGGER.warning("Replay skipped, no processed file: cnpj=" + cnpj);
+            return -1;
+        }
+        if (!pharmacyRepo.existsByCnpj(cnpj)) {
+            LOGGER.warning("Replay skipped, pharmacy CNPJ not found in database: " + cnpj);
+            return -1;
+        }
+        OffsetDateTime fileTime = latest.get().lastModified();
+        OffsetDateTime replayedAsOf = requestedAt != null && requestedAt.isAfter(fileTime) ? requestedAt : fileTime;
+        Optional<OffsetDateTime> stockUpdatedAt = stockRepo.lastUpdatedAt(cnpj);
+        if (stockUpdatedAt.isPresent() && stockUpdatedAt.get().isAfter(replayedAsOf)) {
+            LOGGER.warning("Replay skipped, stock is newer than the replayed file: cnpj=" + cnpj
+                    + " blob=" + latest.get().name() + " fileModified=" + fileTime
+                    + " stockUpdatedAt=" + stockUpdatedAt.get());
+            return -1;
+        }
+
+        String blobName = latest.get().name();
+        String fileName = BlobIngestionContext.fileNameFromBlobPath(blobName);
+        ByteBuffer content = latest.get().content().get();
+
+        StockFileFormat format = formats.forFile(fileName);
+        format.validateHeader(content, fileName);
+        StockParseResult parsed = format.parseAccepting(content, fileName, cnpj, latest.get().referenceDate());
+        List<RowRejection> rejections = new ArrayList<>(parsed.rejections());
+        List<StockModel> stock = rowsProcessor.process(resolver.processAccepting(parsed.rows(), rejections));
+        if (!rejections.isEmpty()) {
+            LOGGER.warning("Replay ignored rows: blob=" + blobName + " rejected=" + rejections.size());
+        }
+
+        stockRepo.upsertAll(stock.stream()
+                .map(sm -> new StockEntry(sm.cnpj(), sm.medicineCode(), sm.quantity(), sm.status()))
+                .toList());
+        return stock.size();
+    }
+
+    private Optional<ReplayCandidate> latestFile(String cnpj) {
+        List<ReplayCandidate> candidates = new ArrayList<>();
+        for (BlobStoragePort.BlobRef blob : blobPort.listProcessedBlobs(cnpj)) {
+            try {
+                String fileName = BlobIngestionContext.fileNameFromBlobPath(blob.name());
+                candidates.add(new ReplayCandidate(blob.name(), BlobIngestionContext.referenceDateFromFileName(fileName),
+                        blob.lastModified(), () -> blobPort.downloadContent(blob)));
+            } catch (RuntimeException e) {
+                LOGGER.warning("Replay ignoring blob with unexpected name: blob=" + blob.name());
+            }
+        }
+        return latest(candidates);
+    }
+
+    private Optional<ReplayCandidate> latestArchivedFile(String cnpj, ArchiveCache cache) {
+        int shard = archiveLayout.shardOf(cnpj);
+        for (LocalDate day : archiveDays()) {
+            List<ReplayCandidate> candidates = new ArrayList<>();
+            String shardPrefix = archiveLayout.shardPrefix(BlobArchivePort.Area.PROCESSED, day, shard);
+            for (String bundleKey : cache.bundles().computeIfAbsent(shardPrefix, archivePort::listBundles)) {
+                for (BundleCodec.Member member : bundleIndex(bundleKey, cache)) {
+                    if (!member.cnpj().equals(cnpj) || member.name().endsWith(".rejects.csv")) continue;
+                    try {
+                        String fileName = BlobIngestionContext.fileNameFromBlobPath(member.name());
+                        ArchivedMember archived = new ArchivedMember(bundleKey, member);
+                        candidates.add(new ReplayCandidate(member.name(),
+                                BlobIngestionContext.referenceDateFromFileName(fileName), member.lastModified(),
+                                () -> readArchived(archived)));
+                    } catch (RuntimeException e) {
+                        LOGGER.warning("Replay ignoring archived member with unexpected name: " + member.name());
+                    }
+                }
+            }
+            if (!candidates.isEmpty()) {
+                return latest(candidates);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private ByteBuffer readArchived(ArchivedMember archived) {
+        BundleCodec.Member m = archived.member();
+        return ByteBuffer.wrap(bundleCodec.decodeMember(
+                archivePort.readBundleRange(archived.bundleKey(), m.offset(), m.length())));
+    }
+
+    private List<BundleCodec.Member> bundleIndex(String bundleKey, ArchiveCache cache) {
+        List<BundleCodec.Member> cached = cache.indexes().get(bundleKey);
+        if (cached != null) {
+            return cached;
+        }
+        List<BundleCodec.Member> members = archivePort.readBundleIndex(bundleKey)
+                .map(bundleCodec::decodeIndex)
+                .orElse(List.of());
+        cache.indexes().putIfAbsent(bundleKey, members);
+        return members;
+    }
+
+    private List<LocalDate> archiveDays() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<LocalDate> days = new ArrayList<>(archiveLookbackDays);
+        for (int i = 1; i <= archiveLookbackDays; i++) {
+            days.add(today.minusDays(i));
+        }
+        return days;
+    }
+
+    private boolean archiveEnabled() {
+        return archivePort != null && archiveLookbackDays > 0;
+    }
+
+    private static Optional<ReplayCandidate> latest(List<ReplayCandidate> candidates) {
+        return candidates.stream().max(Comparator
+                .comparing(ReplayCandidate::referenceDate)
+                .thenComparing(ReplayCandidate::lastModified));
+    }
+
+    private void logProgress(Progress progress) {
+        int done = progress.done().incrementAndGet();
+        long now = System.nanoTime();
+        long previous = progress.lastLogged().get();
+        if (done < progress.total()
+                && (now - previous < PROGRESS_INTERVAL_NANOS || !progress.lastLogged().compareAndSet(previous, now))) {
+            return;
+        }
+        long elapsedMillis = (now - progress.start()) / 1_000_000;
+        LOGGER.info("Replay progress: " + done + "/" + progress.total() + " pharmacies, rows=" + progress.rows().get()
+                + ", elapsedMs=" + elapsedMillis
+                + ", pharmaciesPerSecond=" + (elapsedMillis == 0 ? 0 : done * 1000L / elapsedMillis));
+    }
+}
@@ -0,0 +1,15 @@
+package com.fiap.pharmacypopular.aplication;
+
+public record ReplayRunResult(
+        int pharmacies,
+        int replayed,
+        int skipped,
+        int failed,
+        long rows,
+        long elapsedMillis
+) {
+    public ReplayRunResult plus(ReplayRunResult other) {
+        return new ReplayRunResult(pharmacies + other.pharmacies, replayed + other.replayed, skipped + other.skipped,
+                failed + other.failed, rows + other.rows, elapsedMillis + other.elapsedMillis);
+    }
+}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.aplication;
+
+public record RowQuarantinePolicy(boolean enabled, double maxRejectRatio) {
+
+    public static RowQuarantinePolicy disabled() {
+        return new RowQuarantinePolicy(false, 0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.port.DiagnosticSnapshotPort;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+public class SlowIngestionSnapshots {
+
+    private static final Logger LOGGER = Logger.getLogger("SlowIngestionSnapshots");
+
+    private final DiagnosticSnapshotPort snapshots;
+    private final Duration runThreshold;
+    private final Duration fileThreshold;
+
+    public SlowIngestionSnapshots(DiagnosticSnapshotPort snapshots, Duration runThreshold, Duration fileThreshold) {
+        this.snapshots = snapshots;
+        this.runThreshold = runThreshold;
+        this.fileThreshold = fileThreshold;
+    }
+
+    public static SlowIngestionSnapshots disabled() {
+        return new SlowIngestionSnapshots(null, Duration.ZERO, Duration.ZERO);
+    }
+
+    public void runFinished(long elapsedNanos, BatchRunResult result) {
+        if (exceeds(runThreshold, elapsedNanos)) {
+            capture("run", "eligible=" + result.eligible() + " processed=" + result.processed(), runThreshold,
+                    elapsedNanos);
+        }
+    }
+
+    public void fileFinished(String blobPath, long elapsedNanos) {
+        if (exceeds(fileThreshold, elapsedNanos)) {
+            capture("file", blobPath, fileThreshold, elapsedNanos);
+        }
+    }
+
+    private boolean exceeds(Duration threshold, long elapsedNanos) {
+        return snapshots != null && threshold.isPositive() && elapsedNanos >= threshold.toNanos();
+    }
+
+    private void capture(String trigger, String subject, Duration threshold, long elapsedNanos) {
+        Duration elapsed = Duration.ofNanos(elapsedNanos);
+        LOGGER.warning("Slow ingestion detected: trigger=" + trigger + " subject=" + subject
+                + " elapsedMs=" + elapsed.toMillis() + " thresholdMs=" + threshold.toMillis());
+        try {
+            snapshots.capture(trigger, subject, elapsed);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Failed to capture diagnostic snapshot: trigger=" + trigger + " reason=" + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.StockFileBatch;
+import com.fiap.pharmacypopular.domain.model.StockFileBatchResult;
+import com.fiap.pharmacypopular.domain.port.StockRepositoryPort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+public class StockGroupCommitBuffer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger("StockGroupCommitBuffer");
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    public interface Listener {
+        void committed(StockFileBatchResult result);
+
+        void rejected(StockFileBatchResult result);
+
+        void failed(RuntimeException error);
+    }
+
+    public record Settings(int maxRows, Duration maxDelay, int maxFileRows) {}
+
+    private record Member(StockFileBatch file, Listener listener) {}
+
+    private final StockRepositoryPort stockRepo;
+    private final Settings settings;
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService timer;
+    private List<Member> pending = new ArrayList<>();
+    private int pendingRows;
+    private long oldestNanos;
+    private int groups;
+    private int groupedFiles;
+
+    public StockGroupCommitBuffer(StockRepositoryPort stockRepo, Settings settings) {
+        this.stockRepo = stockRepo;
+        this.settings = settings;
+        long periodMillis = Math.max(1, settings.maxDelay().toMillis() / 2);
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("group-commit-timer").daemon(true).factory());
+        this.timer.scheduleAtFixedRate(this::flushIfDue, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean accepts(int rows) {
+        return rows > 0 && rows <= settings.maxFileRows();
+    }
+
+    public void add(StockFileBatch file, Listener listener) {
+        boolean full;
+        bufferLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                oldestNanos = System.nanoTime();
+            }
+            pending.add(new Member(file, listener));
+            pendingRows += file.rows().size();
+            full = pendingRows >= settings.maxRows();
+        } finally {
+            bufferLock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Member> group;
+            bufferLock.lock();
+            try {
+                group = pending;
+                pending = new ArrayList<>();
+                pendingRows = 0;
+            } finally {
+                bufferLock.unlock();
+            }
+            if (!group.isEmpty()) {
+                write(group);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        timer.shutdown();
+        try {
+            if (!timer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warning("Timed group commit flush still running after " + CLOSE_TIMEOUT_SECONDS
+                        + "s, final flush will wait for it");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        LOGGER.info("Group commit: groups=" + groups + " files=" + groupedFiles);
+    }
+
+    private void flushIfDue() {
+        boolean due;
+        bufferLock.lock();
+        try {
+            due = !pending.isEmpty() && System.nanoTime() - oldestNanos >= settings.maxDelay().toNanos();
+        } finally {
+            bufferLock.unlock();
+        }
+        if (due) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                LOGGER.warning("Timed group commit flush failed: reason=" + e.getMessage());
+            }
+        }
+    }
+
+    private void write(List<Member> group) {
+        long start = System.nanoTime();
+        int rows = group.stream().mapToInt(m -> m.file().rows().size()).sum();
+        try {
+            List<StockFileBatchResult> results = stockRepo.upsertGroup(group.stream().map(Member::file).toList());
+            int rejected = 0;
+            for (int i = 0; i < group.size(); i++) {
+                StockFileBatchResult result = results.get(i);
+                if (result.committed()) {
+                    group.get(i).listener().committed(result);
+                } else {
+                    rejected++;
+                    group.get(i).listener().rejected(result);
+                }
+            }
+            groups++;
+            groupedFiles += group.size();
+            LOGGER.info("Group commit flushed: files=" + group.size() + " rows=" + rows + " rejected=" + rejected
+                    + " elapsedMs=" + (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Group commit failed: files=" + group.size() + " rows=" + rows + " reason=" + e.getMessage());
+            group.forEach(m -> m.listener().failed(e));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.StockSummaryDrift;
+
+import java.util.List;
+
+public record StockSummaryVerificationResult(
+        List<StockSummaryDrift> drift,
+        boolean repaired,
+        int rebuiltRows
+) {}
@@ -0,0 +1,48 @@
+package com.fiap.pharmacypopular.aplication;
+
+import com.fiap.pharmacypopular.domain.model.StockSummaryDrift;
+import com.fiap.pharmacypopular.domain.port.StockSummaryRepositoryPort;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+public class VerifyStockSummaryUseCase {
+
+    private static final Logger LOGGER = Logger.getLogger("VerifyStockSummaryUseCase");
+    private static final int MAX_LOGGED_DRIFT = 20;
+
+    private final StockSummaryRepositoryPort summaryRepo;
+    private final boolean repairOnDrift;
+
+    public VerifyStockSummaryUseCase(StockSummaryRepositoryPort summaryRepo, boolean repairOnDrift) {
+        this.summaryRepo = summaryRepo;
+        this.repairOnDrift = repairOnDrift;
+    }
+
+    public void initialize() {
+        int backfilled = summaryRepo.initializeIfEmpty();
+        if (backfilled > 0) {
+            LOGGER.info("Stock summary backfilled from current stock: rows=" + backfilled);
+        }
+    }
+
+    public StockSummaryVerificationResult execute() {
+        List<StockSummaryDrift> drift = summaryRepo.findDrift();
+        if (drift.isEmpty()) {
+            LOGGER.info("Stock summary verified: no drift");
+            return new StockSummaryVerificationResult(drift, false, 0);
+        }
+
+        LOGGER.warning("Stock summary drift detected: entries=" + drift.size());
+        drift.stream().limit(MAX_LOGGED_DRIFT).forEach(d -> LOGGER.warning("Stock summary drift: medicineCode="
+                + d.medicineCode() + " status=" + d.status() + " stored=" + d.storedCount()
+                + " actual=" + d.actualCount()));
+
+        if (!repairOnDrift) {
+            return new StockSummaryVerificationResult(drift, false, 0);
+        }
+        int rebuilt = summaryRepo.rebuild();
+        LOGGER.info("Stock summary rebuilt: rows=" + rebuilt);
+        return new StockSummaryVerificationResult(drift, true, rebuilt);
+    }
+}
@@ -0,0 +1,6 @@
+package com.fiap.pharmacypopular.aplication.model;
+
+public record RowRejection(
+        int lineNumber,
+        String reason
+) {}
@@ -6,5 +6,6 @@ public record StockFileModel(
         String cnpj,
         String medicineName,
         int quantity,
-        LocalDate referenceDate
+        LocalDate referenceDate,
+        int lineNumber
 ) {}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.aplication.model;
+
+import java.util.List;
+
+public record StockParseResult(
+        List<StockFileModel> rows,
+        List<RowRejection> rejections
+) {}
@@ -0,0 +1,185 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class BundleCodec {
+
+    private static final String LEGACY_INDEX_HEADER = "name;cnpj;offset;length;size;last_modified";
+    private static final String INDEX_HEADER = "v2;" + LEGACY_INDEX_HEADER;
+
+    public record Member(String name, String cnpj, long offset, long length, long size, OffsetDateTime lastModified) {}
+
+    public static final class BundleWriter implements AutoCloseable {
+
+        private final CountingOutputStream out;
+        private final List<Member> members = new ArrayList<>();
+
+        private BundleWriter(OutputStream target) {
+            this.out = new CountingOutputStream(target);
+        }
+
+        public Member add(String name, String cnpj, OffsetDateTime lastModified, InputStream content) {
+            long offset = out.count;
+            long size;
+            try {
+                GZIPOutputStream gzip = new GZIPOutputStream(new NonClosingOutputStream(out), 64 * 1024);
+                size = content.transferTo(gzip);
+                gzip.finish();
+                gzip.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write bundle member: " + name, e);
+            }
+            Member member = new Member(name, cnpj, offset, out.count - offset, size, lastModified);
+            members.add(member);
+            return member;
+        }
+
+        public List<Member> members() {
+            return List.copyOf(members);
+        }
+
+        @Override
+        public void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to close bundle", e);
+            }
+        }
+    }
+
+    public BundleWriter writer(OutputStream target) {
+        return new BundleWriter(target);
+    }
+
+    public byte[] encodeIndex(List<Member> members) {
+        StringBuilder sb = new StringBuilder(INDEX_HEADER).append('\n');
+        for (Member m : members) {
+            sb.append("v2;")
+                    .append(escape(m.name())).append(';')
+                    .append(escape(m.cnpj())).append(';')
+                    .append(m.offset()).append(';')
+                    .append(m.length()).append(';')
+                    .append(m.size()).append(';')
+                    .append(m.lastModified()).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    public List<Member> decodeIndex(byte[] index) {
+        String[] lines = new String(index, StandardCharsets.UTF_8).split("\r?\n");
+        boolean escaped = lines.length > 0 && INDEX_HEADER.equals(lines[0].trim());
+        if (!escaped && (lines.length == 0 || !LEGACY_INDEX_HEADER.equals(lines[0].trim()))) {
+            throw new IllegalArgumentException("Invalid bundle index header");
+        }
+
+        List<Member> members = new ArrayList<>(lines.length - 1);
+        for (int i = 1; i < lines.length; i++) {
+            if (lines[i].isBlank()) continue;
+            String[] f = lines[i].split(";", -1);
+            if (escaped && (f.length != 7 || !"v2".equals(f[0]))) {
+                throw new IllegalArgumentException("Invalid bundle index line " + (i + 1) + ": " + lines[i]);
+            }
+            if (!escaped && f.length != 6) {
+                throw new IllegalArgumentException("Invalid bundle index line " + (i + 1) + ": " + lines[i]);
+            }
+            int c = escaped ? 1 : 0;
+            members.add(new Member(
+                    escaped ? unescape(f[c]) : f[c],
+                    escaped ? unescape(f[c + 1]) : f[c + 1],
+                    Long.parseLong(f[c + 2]), Long.parseLong(f[c + 3]), Long.parseLong(f[c + 4]),
+                    OffsetDateTime.parse(f[c + 5])));
+        }
+        return members;
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '%' -> sb.append("%25");
+                case ';' -> sb.append("%3B");
+                case '\n' -> sb.append("%0A");
+                case '\r' -> sb.append("%0D");
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('%') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '%') {
+                sb.append(c);
+                continue;
+            }
+            if (i + 2 >= value.length()) {
+                throw new IllegalArgumentException("Invalid escape in bundle index field: " + value);
+            }
+            sb.append((char) Integer.parseInt(value.substring(i + 1, i + 3), 16));
+            i += 2;
+        }
+        return sb.toString();
+    }
+
+    public byte[] decodeMember(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decompress bundle member", e);
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
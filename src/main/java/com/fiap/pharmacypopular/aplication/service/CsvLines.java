@@ -0,0 +1,67 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class CsvLines {
+
+    @FunctionalInterface
+    interface LineConsumer {
+        boolean accept(String line, int lineNumber);
+    }
+
+    private CsvLines() {}
+
+    static String first(ByteBuffer content) {
+        ByteBuffer bytes = content.slice();
+        int end = indexOfNewline(bytes, 0);
+        return decode(bytes, 0, lineLength(bytes, 0, end < 0 ? bytes.limit() : end), null);
+    }
+
+    static ByteBuffer afterFirst(ByteBuffer content) {
+        ByteBuffer bytes = content.slice();
+        int end = indexOfNewline(bytes, 0);
+        return end < 0 ? null : bytes.slice(end + 1, bytes.limit() - end - 1);
+    }
+
+    static void forEach(ByteBuffer content, int firstLine, LineConsumer consumer) {
+        ByteBuffer bytes = content.slice();
+        byte[] scratch = bytes.hasArray() ? null : new byte[256];
+        int limit = bytes.limit();
+        int lineNumber = firstLine;
+        int start = 0;
+        while (start < limit) {
+            int newline = indexOfNewline(bytes, start);
+            int end = newline < 0 ? limit : newline;
+            int length = lineLength(bytes, start, end);
+            if (scratch != null && scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            if (!consumer.accept(decode(bytes, start, length, scratch), lineNumber)) {
+                return;
+            }
+            lineNumber++;
+            start = end + 1;
+        }
+    }
+
+    static int indexOfNewline(ByteBuffer bytes, int from) {
+        for (int i = from; i < bytes.limit(); i++) {
+            if (bytes.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    private static int lineLength(ByteBuffer bytes, int start, int end) {
+        return end > start && bytes.get(end - 1) == '\r' ? end - start - 1 : end - start;
+    }
+
+    private static String decode(ByteBuffer bytes, int start, int length, byte[] scratch) {
+        if (bytes.hasArray()) {
+            return new String(bytes.array(), bytes.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        byte[] target = scratch != null && scratch.length >= length ? scratch : new byte[length];
+        bytes.get(start, target, 0, length);
+        return new String(target, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+final class CsvSegments {
+
+    static final int MIN_SEGMENT_BYTES = 1 << 20;
+    private static final int SEGMENTS_PER_THREAD = 4;
+
+    record Segment(ByteBuffer bytes, int firstLine) {}
+
+    private CsvSegments() {}
+
+    static List<Segment> split(ByteBuffer body, int firstLine, ForkJoinPool pool, int minSegmentBytes) {
+        ByteBuffer bytes = body.slice();
+        int length = bytes.limit();
+        int segmentBytes = Math.max(minSegmentBytes, length / (pool.getParallelism() * SEGMENTS_PER_THREAD) + 1);
+
+        List<int[]> ranges = new ArrayList<>();
+        int from = 0;
+        while (from < length) {
+            int newline = length - from > segmentBytes ? CsvLines.indexOfNewline(bytes, from + segmentBytes - 1) : -1;
+            int to = newline < 0 ? length : newline + 1;
+            ranges.add(new int[]{from, to});
+            from = to;
+        }
+
+        int[] newlines = pool.submit(() -> ranges.parallelStream()
+                .mapToInt(r -> countNewlines(bytes, r[0], r[1]))
+                .toArray()).join();
+
+        List<Segment> segments = new ArrayList<>(ranges.size());
+        int line = firstLine;
+        for (int i = 0; i < ranges.size(); i++) {
+            int[] r = ranges.get(i);
+            segments.add(new Segment(bytes.slice(r[0], r[1] - r[0]), line));
+            line += newlines[i];
+        }
+        return segments;
+    }
+
+    private static int countNewlines(ByteBuffer bytes, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (bytes.get(i) == '\n') count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,47 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import com.fiap.pharmacypopular.aplication.model.StockFileModel;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+public class CsvStockFileFormat implements StockFileFormat {
+
+    private final FileStockValidatorService validator;
+    private final StockFileParserService parser;
+
+    public CsvStockFileFormat(FileStockValidatorService validator, StockFileParserService parser) {
+        this.validator = validator;
+        this.parser = parser;
+    }
+
+    @Override
+    public String extension() {
+        return "csv";
+    }
+
+    @Override
+    public void validate(ByteBuffer content, String fileName) {
+        validator.validateHeader(content, fileName);
+    }
+
+    @Override
+    public void validateHeader(ByteBuffer content, String fileName) {
+        validator.validateHeader(content, fileName);
+    }
+
+    @Override
+    public List<StockFileModel> parse(ByteBuffer content, String fileName, String expectedCnpj,
+                                      LocalDate expectedReferenceDate) {
+        return parser.parse(content, fileName, expectedCnpj, expectedReferenceDate,
+                (line, lineNumber) -> validator.validateRow(line, lineNumber, fileName));
+    }
+
+    @Override
+    public StockParseResult parseAccepting(ByteBuffer content, String fileName, String expectedCnpj,
+                                           LocalDate expectedReferenceDate) {
+        return parser.parseAccepting(content, fileName, expectedCnpj, expectedReferenceDate);
+    }
+}
@@ -2,7 +2,7 @@ package com.fiap.pharmacypopular.aplication.service;
 
 import com.fiap.pharmacypopular.aplication.exception.FileValidationException;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -13,19 +13,69 @@ public class FileStockValidatorService {
             List.of("cnpj", "medicine_name", "quantity", "reference_date");
 
     public void validate(byte[] bytes, String blobName) {
+        validate(ByteBuffer.wrap(bytes), blobName);
+    }
+
+    public void validate(ByteBuffer content, String blobName) {
+        validateHeader(content, blobName);
+
+        ByteBuffer body = CsvLines.afterFirst(content);
+        if (body == null) {
+            return;
+        }
+        CsvLines.forEach(body, 2, (line, lineNumber) -> {
+            validateRow(line, lineNumber, blobName);
+            return true;
+        });
+    }
+
+    public void validateRow(String line, int lineNumber, String blobName) {
+        validateLine(line.trim(), lineNumber - 1, blobName);
+    }
+
+    private void validateLine(String line, int lineIndex, String blobName) {
         char delimiter = ';';
+        if (line.isBlank()) return;
 
-        if (!blobName.toLowerCase().endsWith(".csv")) {
-            throw new FileValidationException("Invalid file extension (expected .csv): " + blobName);
+        String[] parts = splitAndTrim(line, delimiter);
+        if (parts.length != EXPECTED_HEADER.size()) {
+            throw new FileValidationException("Line " + (lineIndex + 1) + " with invalid columns ("
+                    + parts.length + "): " + blobName);
         }
 
-        String content = new String(bytes, StandardCharsets.UTF_8);
-        if (content.isBlank()) {
+        String cnpj = parts[0];
+        String medicineName = parts[1];
+        String quantity = parts[2];
+        String referenceDate = parts[3];
+
+        validateCnpj(cnpj, blobName, lineIndex);
+        validateMedicineName(medicineName, blobName, lineIndex);
+        validateQuantity(quantity, blobName, lineIndex);
+        validateReferenceDate(referenceDate, blobName, lineIndex);
+    }
+
+    public void validateHeader(byte[] bytes, String blobName) {
+        validateHeader(ByteBuffer.wrap(bytes), blobName);
+    }
+
+    public void validateHeader(ByteBuffer content, String blobName) {
+        validateExtension(blobName);
+
+        if (!content.hasRemaining()) {
             throw new FileValidationException("File is empty: " + blobName);
         }
+        validateHeaderLine(CsvLines.first(content), blobName);
+    }
+
+    private void validateExtension(String blobName) {
+        if (!blobName.toLowerCase().endsWith(".csv")) {
+            throw new FileValidationException("Invalid file extension (expected .csv): " + blobName);
+        }
+    }
 
-        String[] lines = content.split("\\R");
-        String headerLine = lines[0].trim();
+    private void validateHeaderLine(String header, String blobName) {
+        char delimiter = ';';
+        String headerLine = header.trim();
         if (headerLine.isBlank()) {
             throw new FileValidationException("Header is empty: " + blobName);
         }
@@ -41,27 +91,6 @@ public class FileStockValidatorService {
                         + EXPECTED_HEADER.get(i) + " received value = " + headerCols[i] + " (" + blobName + ")");
             }
         }
-
-        for (int lineIndex = 1; lineIndex < lines.length; lineIndex++) {
-            String line = lines[lineIndex].trim();
-            if (line.isBlank()) continue;
-
-            String[] parts = splitAndTrim(line, delimiter);
-            if (parts.length != EXPECTED_HEADER.size()) {
-                throw new FileValidationException("Line " + (lineIndex + 1) + " with invalid columns ("
-                        + parts.length + "): " + blobName);
-            }
-
-            String cnpj = parts[0];
-            String medicineName = parts[1];
-            String quantity = parts[2];
-            String referenceDate = parts[3];
-
-            validateCnpj(cnpj, blobName, lineIndex);
-            validateMedicineName(medicineName, blobName, lineIndex);
-            validateQuantity(quantity, blobName, lineIndex);
-            validateReferenceDate(referenceDate, blobName, lineIndex);
-        }
     }
 
     private String[] splitAndTrim(String line, char delimiter) {
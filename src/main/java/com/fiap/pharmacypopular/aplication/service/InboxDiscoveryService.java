@@ -0,0 +1,74 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import com.fiap.pharmacypopular.domain.model.InboxDiscoveryState;
+import com.fiap.pharmacypopular.domain.port.BlobStoragePort;
+import com.fiap.pharmacypopular.domain.port.InboxDiscoveryStatePort;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+public class InboxDiscoveryService {
+
+    private static final Logger LOGGER = Logger.getLogger("InboxDiscoveryService");
+
+    public record Discovery(
+            List<BlobStoragePort.BlobRef> blobs,
+            boolean fullListing,
+            OffsetDateTime upTo,
+            OffsetDateTime lastFullListingAt
+    ) {}
+
+    private final BlobStoragePort blobPort;
+    private final InboxDiscoveryStatePort statePort;
+    private final String source;
+    private final Duration fullListingInterval;
+    private final Duration overlap;
+
+    public InboxDiscoveryService(BlobStoragePort blobPort) {
+        this(blobPort, null, null, Duration.ZERO, Duration.ZERO);
+    }
+
+    public InboxDiscoveryService(BlobStoragePort blobPort, InboxDiscoveryStatePort statePort, String source,
+                                 Duration fullListingInterval, Duration overlap) {
+        this.blobPort = blobPort;
+        this.statePort = statePort;
+        this.source = source;
+        this.fullListingInterval = fullListingInterval;
+        this.overlap = overlap;
+    }
+
+    public Discovery discover(OffsetDateTime cutoff) {
+        if (statePort == null) {
+            return new Discovery(blobPort.listInboxBlobs(), true, cutoff, null);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        Optional<InboxDiscoveryState> state = statePort.load(source);
+        boolean full = state.isEmpty()
+                || state.get().highWaterMark() == null
+                || state.get().lastFullListingAt() == null
+                || state.get().lastFullListingAt().isBefore(now.minus(fullListingInterval));
+
+        if (full) {
+            List<BlobStoragePort.BlobRef> blobs = blobPort.listInboxBlobs();
+            LOGGER.info("Inbox discovery: full reconciliation listing, blobs=" + blobs.size());
+            return new Discovery(blobs, true, cutoff, now);
+        }
+
+        OffsetDateTime after = state.get().highWaterMark().minus(overlap);
+        List<BlobStoragePort.BlobRef> blobs = blobPort.listInboxBlobsUploadedBetween(after, cutoff);
+        LOGGER.info("Inbox discovery: incremental after=" + after + " upTo=" + cutoff + ", blobs=" + blobs.size());
+        return new Discovery(blobs, false, cutoff, state.get().lastFullListingAt());
+    }
+
+    public void commit(Discovery discovery) {
+        if (statePort == null) {
+            return;
+        }
+        statePort.save(source, new InboxDiscoveryState(discovery.upTo(), discovery.lastFullListingAt()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import com.fiap.pharmacypopular.aplication.model.StockFileModel;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface StockFileFormat {
+
+    String extension();
+
+    void validate(ByteBuffer content, String fileName);
+
+    void validateHeader(ByteBuffer content, String fileName);
+
+    List<StockFileModel> parse(ByteBuffer content, String fileName, String expectedCnpj, LocalDate expectedReferenceDate);
+
+    StockParseResult parseAccepting(ByteBuffer content, String fileName, String expectedCnpj,
+                                    LocalDate expectedReferenceDate);
+}
@@ -0,0 +1,32 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import com.fiap.pharmacypopular.aplication.exception.FileValidationException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class StockFileFormats {
+
+    private final Map<String, StockFileFormat> byExtension = new LinkedHashMap<>();
+
+    public StockFileFormats(List<StockFileFormat> formats) {
+        formats.forEach(f -> byExtension.put(f.extension().toLowerCase(Locale.ROOT), f));
+    }
+
+    public static StockFileFormats csvOnly() {
+        return new StockFileFormats(List.of(
+                new CsvStockFileFormat(new FileStockValidatorService(), new StockFileParserService())));
+    }
+
+    public StockFileFormat forFile(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        StockFileFormat format = dot < 0 ? null : byExtension.get(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+        if (format == null) {
+            throw new FileValidationException("Invalid file extension (expected ." + String.join(", .", byExtension.keySet())
+                    + "): " + fileName);
+        }
+        return format;
+    }
+}
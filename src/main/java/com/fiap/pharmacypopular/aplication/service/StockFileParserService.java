@@ -1,89 +1,271 @@
 package com.fiap.pharmacypopular.aplication.service;
 
+import com.fiap.pharmacypopular.aplication.model.RowRejection;
 import com.fiap.pharmacypopular.aplication.model.StockFileModel;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class StockFileParserService {
 
     private static final String EXPECTED_HEADER = "cnpj;medicine_name;quantity;reference_date";
 
+    @FunctionalInterface
+    public interface RowCheck {
+        void check(String line, int lineNumber);
+    }
+
+    private record Chunk(List<StockFileModel> rows, List<RowRejection> rejections, RuntimeException error) {}
+
+    private final long parallelThresholdBytes;
+    private final ForkJoinPool pool;
+    private final boolean rejectDuplicateMedicines;
+    private final int minSegmentBytes;
+
+    public StockFileParserService() {
+        this(false);
+    }
+
+    public StockFileParserService(boolean rejectDuplicateMedicines) {
+        this(Long.MAX_VALUE, ForkJoinPool.commonPool(), rejectDuplicateMedicines);
+    }
+
+    public StockFileParserService(long parallelThresholdBytes, ForkJoinPool pool, boolean rejectDuplicateMedicines) {
+        this(parallelThresholdBytes, pool, rejectDuplicateMedicines, CsvSegments.MIN_SEGMENT_BYTES);
+    }
+
+    StockFileParserService(long parallelThresholdBytes, ForkJoinPool pool, boolean rejectDuplicateMedicines,
+                           int minSegmentBytes) {
+        this.parallelThresholdBytes = parallelThresholdBytes;
+        this.pool = pool;
+        this.rejectDuplicateMedicines = rejectDuplicateMedicines;
+        this.minSegmentBytes = minSegmentBytes;
+    }
+
     public List<StockFileModel> parse(byte[] bytes, String fileName, String expectedCnpj, LocalDate expectedReferenceDate) {
-        if (bytes == null || bytes.length == 0) {
-            throw new IllegalArgumentException("Empty file: " + fileName);
-        }
+        return parse(ByteBuffer.wrap(bytes), fileName, expectedCnpj, expectedReferenceDate);
+    }
+
+    public List<StockFileModel> parse(ByteBuffer bytes, String fileName, String expectedCnpj, LocalDate expectedReferenceDate) {
+        return parse(bytes, fileName, expectedCnpj, expectedReferenceDate, null);
+    }
 
-        String content = new String(bytes, StandardCharsets.UTF_8);
-        String[] lines = content.split("\\r?\\n");
+    public List<StockFileModel> parse(ByteBuffer bytes, String fileName, String expectedCnpj,
+                                      LocalDate expectedReferenceDate, RowCheck rowCheck) {
+        List<StockFileModel> rows = parseLines(bytes, fileName, expectedCnpj, expectedReferenceDate, null, rowCheck);
 
-        if (lines.length < 2) {
-            throw new IllegalArgumentException("CSV must contain header and at least one data line: " + fileName);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("CSV contains no data rows: " + fileName);
         }
-        String header = lines[0].trim();
-        if (!EXPECTED_HEADER.equalsIgnoreCase(header)) {
-            throw new IllegalArgumentException("Invalid CSV header. Expected: " + EXPECTED_HEADER + " file=" + fileName);
+
+        return rows;
+    }
+
+    public StockParseResult parseAccepting(byte[] bytes, String fileName, String expectedCnpj, LocalDate expectedReferenceDate) {
+        return parseAccepting(ByteBuffer.wrap(bytes), fileName, expectedCnpj, expectedReferenceDate);
+    }
+
+    public StockParseResult parseAccepting(ByteBuffer bytes, String fileName, String expectedCnpj, LocalDate expectedReferenceDate) {
+        List<RowRejection> rejections = new ArrayList<>();
+        List<StockFileModel> rows = parseLines(bytes, fileName, expectedCnpj, expectedReferenceDate, rejections, null);
+
+        if (rows.isEmpty() && rejections.isEmpty()) {
+            throw new IllegalArgumentException("CSV contains no data rows: " + fileName);
         }
 
-        List<StockFileModel> rows = new ArrayList<>();
+        return new StockParseResult(rows, rejections);
+    }
 
-        for (int i = 1; i < lines.length; i++) {
-            String raw = lines[i].trim();
-            if (raw.isEmpty()) continue;
+    private List<StockFileModel> parseLines(ByteBuffer bytes, String fileName, String expectedCnpj,
+                                            LocalDate expectedReferenceDate, List<RowRejection> rejections,
+                                            RowCheck rowCheck) {
+        if (bytes == null || !bytes.hasRemaining()) {
+            throw new IllegalArgumentException("Empty file: " + fileName);
+        }
 
-            String[] parts = raw.split(";", -1);
-            if (parts.length != 4) {
-                throw new IllegalArgumentException("Invalid CSV line (expected 4 columns) at line " + (i + 1) + " file=" + fileName);
+        ByteBuffer body = CsvLines.afterFirst(bytes);
+        if (body == null || !body.hasRemaining()) {
+            throw new IllegalArgumentException("CSV must contain header and at least one data line: " + fileName);
+        }
+        requireHeader(CsvLines.first(bytes), fileName);
+
+        if (bytes.remaining() >= parallelThresholdBytes) {
+            List<CsvSegments.Segment> segments = CsvSegments.split(body, 2, pool, minSegmentBytes);
+            if (segments.size() > 1) {
+                return parseSegments(segments, fileName, expectedCnpj, expectedReferenceDate, rejections, rowCheck);
             }
+        }
 
-            String cnpj = onlyDigits(parts[0].trim());
-            String medicineName = parts[1].trim();
-            String quantityStr = parts[2].trim();
-            String dateStr = parts[3].trim();
+        Chunk chunk = parseChunk(body, 2, fileName, expectedCnpj, expectedReferenceDate, rejections != null, rowCheck);
+        if (chunk.error() != null) {
+            throw chunk.error();
+        }
+        if (rejections != null) {
+            rejections.addAll(chunk.rejections());
+        }
+        return chunk.rows();
+    }
 
-            if (cnpj.length() != 14) {
-                throw new IllegalArgumentException("Invalid CNPJ at line " + (i + 1) + ": " + parts[0].trim() + " file=" + fileName);
+    private List<StockFileModel> parseSegments(List<CsvSegments.Segment> segments, String fileName, String expectedCnpj,
+                                               LocalDate expectedReferenceDate, List<RowRejection> rejections,
+                                               RowCheck rowCheck) {
+        boolean accepting = rejections != null;
+        List<Chunk> chunks = pool.submit(() -> segments.parallelStream()
+                .map(s -> parseChunk(s.bytes(), s.firstLine(), fileName, expectedCnpj, expectedReferenceDate,
+                        accepting, rowCheck))
+                .toList()).join();
+
+        Map<String, Integer> seen = new HashMap<>();
+        List<StockFileModel> rows = new ArrayList<>();
+        List<RowRejection> merged = new ArrayList<>();
+        for (Chunk chunk : chunks) {
+            for (StockFileModel row : chunk.rows()) {
+                try {
+                    requireFirstOccurrence(seen, row.medicineName(), row.lineNumber(), fileName);
+                    rows.add(row);
+                } catch (IllegalArgumentException ex) {
+                    if (!accepting) {
+                        throw ex;
+                    }
+                    merged.add(new RowRejection(row.lineNumber(), ex.getMessage()));
+                }
             }
-            if (!cnpj.equals(expectedCnpj)) {
-                throw new IllegalArgumentException("CNPJ mismatch at line " + (i + 1) + ": csv=" + cnpj + " expected=" + expectedCnpj + " file=" + fileName);
+            if (chunk.error() != null) {
+                throw chunk.error();
             }
+            merged.addAll(chunk.rejections());
+        }
 
-            if (medicineName.isBlank()) {
-                throw new IllegalArgumentException("medicine_name is required at line " + (i + 1) + " file=" + fileName);
-            }
+        if (accepting) {
+            merged.sort(Comparator.comparingInt(RowRejection::lineNumber));
+            rejections.addAll(merged);
+        }
+        return rows;
+    }
 
-            int quantity;
-            try {
-                quantity = Integer.parseInt(quantityStr);
-            } catch (NumberFormatException ex) {
-                throw new IllegalArgumentException("Invalid quantity at line " + (i + 1) + ": " + quantityStr + " file=" + fileName);
-            }
+    private Chunk parseChunk(ByteBuffer lines, int firstLine, String fileName, String expectedCnpj,
+                             LocalDate expectedReferenceDate, boolean accepting, RowCheck rowCheck) {
+        Map<String, Integer> seen = new HashMap<>();
+        List<StockFileModel> rows = new ArrayList<>();
+        List<RowRejection> rejections = new ArrayList<>();
+        RuntimeException[] error = new RuntimeException[1];
 
-            if (quantity < 0) {
-                throw new IllegalArgumentException("Quantity must be >= 0 at line " + (i + 1) + " file=" + fileName);
-            }
+        CsvLines.forEach(lines, firstLine, (line, lineNumber) -> {
+            String raw = line.trim();
+            if (raw.isEmpty()) return true;
 
-            LocalDate referenceDate;
             try {
-                referenceDate = LocalDate.parse(dateStr);
-            } catch (Exception ex) {
-                throw new IllegalArgumentException("Invalid reference_date at line " + (i + 1) + ": " + dateStr + " file=" + fileName);
-            }
-            if (!referenceDate.equals(expectedReferenceDate)) {
-                throw new IllegalArgumentException("reference_date mismatch at line " + (i + 1) + ": csv=" + referenceDate
-                        + " expected=" + expectedReferenceDate + " file=" + fileName);
+                if (rowCheck != null) {
+                    rowCheck.check(raw, lineNumber);
+                }
+                StockFileModel row = parseLine(raw, lineNumber, fileName, expectedCnpj, expectedReferenceDate);
+                requireFirstOccurrence(seen, row.medicineName(), lineNumber, fileName);
+                rows.add(row);
+            } catch (RuntimeException ex) {
+                if (!accepting || !(ex instanceof IllegalArgumentException)) {
+                    error[0] = ex;
+                    return false;
+                }
+                rejections.add(new RowRejection(lineNumber, ex.getMessage()));
             }
+            return true;
+        });
 
-            rows.add(new StockFileModel(cnpj, medicineName, quantity, referenceDate));
+        return new Chunk(rows, rejections, error[0]);
+    }
+
+    private void requireHeader(String header, String fileName) {
+        if (!EXPECTED_HEADER.equalsIgnoreCase(header.trim())) {
+            throw new IllegalArgumentException("Invalid CSV header. Expected: " + EXPECTED_HEADER + " file=" + fileName);
         }
+    }
 
-        if (rows.isEmpty()) {
-            throw new IllegalArgumentException("CSV contains no data rows: " + fileName);
+    private StockFileModel parseLine(String raw, int lineNumber, String fileName, String expectedCnpj,
+                                     LocalDate expectedReferenceDate) {
+        String[] parts = raw.split(";", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid CSV line (expected 4 columns) at line " + lineNumber + " file=" + fileName);
         }
 
-        return rows;
+        String cnpj = requireCnpj(parts[0].trim(), lineNumber, fileName, expectedCnpj);
+        String medicineName = requireMedicineName(parts[1].trim(), lineNumber, fileName);
+        String quantityStr = parts[2].trim();
+        String dateStr = parts[3].trim();
+
+        int quantity;
+        try {
+            quantity = Integer.parseInt(quantityStr);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid quantity at line " + lineNumber + ": " + quantityStr + " file=" + fileName);
+        }
+        requireQuantity(quantity, lineNumber, fileName);
+
+        LocalDate referenceDate = requireReferenceDate(parseReferenceDate(dateStr, lineNumber, fileName), lineNumber,
+                fileName, expectedReferenceDate);
+
+        return new StockFileModel(cnpj, medicineName, quantity, referenceDate, lineNumber);
+    }
+
+    public String requireCnpj(String value, int lineNumber, String fileName, String expectedCnpj) {
+        String cnpj = onlyDigits(value);
+        if (cnpj.length() != 14) {
+            throw new IllegalArgumentException("Invalid CNPJ at line " + lineNumber + ": " + value + " file=" + fileName);
+        }
+        if (!cnpj.equals(expectedCnpj)) {
+            throw new IllegalArgumentException("CNPJ mismatch at line " + lineNumber + ": csv=" + cnpj + " expected=" + expectedCnpj + " file=" + fileName);
+        }
+        return cnpj;
+    }
+
+    public String requireMedicineName(String medicineName, int lineNumber, String fileName) {
+        if (medicineName.isBlank()) {
+            throw new IllegalArgumentException("medicine_name is required at line " + lineNumber + " file=" + fileName);
+        }
+        return medicineName;
+    }
+
+    public void requireFirstOccurrence(Map<String, Integer> seenAtLine, String medicineName, int lineNumber,
+                                       String fileName) {
+        if (!rejectDuplicateMedicines) {
+            return;
+        }
+        Integer firstLine = seenAtLine.putIfAbsent(medicineName.toUpperCase(Locale.ROOT), lineNumber);
+        if (firstLine != null) {
+            throw new IllegalArgumentException("Duplicate medicine_name at line " + lineNumber + ": " + medicineName
+                    + " first seen at line " + firstLine + " file=" + fileName);
+        }
+    }
+
+    public int requireQuantity(int quantity, int lineNumber, String fileName) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Quantity must be >= 0 at line " + lineNumber + " file=" + fileName);
+        }
+        return quantity;
+    }
+
+    public LocalDate parseReferenceDate(String dateStr, int lineNumber, String fileName) {
+        try {
+            return LocalDate.parse(dateStr);
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Invalid reference_date at line " + lineNumber + ": " + dateStr + " file=" + fileName);
+        }
+    }
+
+    public LocalDate requireReferenceDate(LocalDate referenceDate, int lineNumber, String fileName,
+                                          LocalDate expectedReferenceDate) {
+        if (!referenceDate.equals(expectedReferenceDate)) {
+            throw new IllegalArgumentException("reference_date mismatch at line " + lineNumber + ": csv=" + referenceDate
+                    + " expected=" + expectedReferenceDate + " file=" + fileName);
+        }
+        return referenceDate;
     }
 
     private String onlyDigits(String s) {
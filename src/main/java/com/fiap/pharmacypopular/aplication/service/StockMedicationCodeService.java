@@ -1,5 +1,7 @@
 package com.fiap.pharmacypopular.aplication.service;
 
+import com.fiap.pharmacypopular.aplication.FailFastScope;
+import com.fiap.pharmacypopular.aplication.model.RowRejection;
 import com.fiap.pharmacypopular.aplication.model.StockFileModel;
 import com.fiap.pharmacypopular.aplication.model.StockModel;
 import com.fiap.pharmacypopular.domain.port.MedicationRepositoryPort;
@@ -8,47 +10,142 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 public class StockMedicationCodeService {
 
     private final MedicationRepositoryPort medicationRepo;
+    private final int lookupConcurrency;
+    private final Map<String, String> preloadedCodes;
 
     public StockMedicationCodeService(MedicationRepositoryPort medicationRepo) {
+        this(medicationRepo, 1);
+    }
+
+    public StockMedicationCodeService(MedicationRepositoryPort medicationRepo, int lookupConcurrency) {
+        this(medicationRepo, lookupConcurrency, null);
+    }
+
+    private StockMedicationCodeService(MedicationRepositoryPort medicationRepo, int lookupConcurrency,
+                                       Map<String, String> preloadedCodes) {
         this.medicationRepo = medicationRepo;
+        this.lookupConcurrency = Math.max(1, lookupConcurrency);
+        this.preloadedCodes = preloadedCodes;
+    }
+
+    public StockMedicationCodeService withPreloadedCodes() {
+        return new StockMedicationCodeService(medicationRepo, lookupConcurrency,
+                Map.copyOf(medicationRepo.findAllCodesByName()));
     }
 
     public List<StockModel> process(List<StockFileModel> rows) {
+        Map<String, String> codeByName = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        resolveCodes(rows, codeByName, missing);
+
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Medication(s) not found in reference table: " + String.join(", ", missing));
+        }
+
+        List<StockModel> out = new ArrayList<>(rows.size());
+        for (StockFileModel r : rows) {
+            out.add(toModel(r, codeByName.get(r.medicineName().trim())));
+        }
+        return out;
+    }
+
+    public List<StockModel> processAccepting(List<StockFileModel> rows, List<RowRejection> rejections) {
+        Map<String, String> codeByName = new HashMap<>();
+        resolveCodes(rows, codeByName, new ArrayList<>());
+
+        List<StockModel> out = new ArrayList<>(rows.size());
+        for (StockFileModel r : rows) {
+            String code = codeByName.get(r.medicineName().trim());
+            if (code == null) {
+                rejections.add(new RowRejection(r.lineNumber(),
+                        "Medication not found in reference table: " + r.medicineName().trim()));
+                continue;
+            }
+            out.add(toModel(r, code));
+        }
+        return out;
+    }
+
+    private void resolveCodes(List<StockFileModel> rows, Map<String, String> codeByName, List<String> missing) {
         List<String> uniqueNames = rows.stream()
                 .map(r -> r.medicineName().trim())
                 .distinct()
                 .toList();
 
-        Map<String, String> codeByName = new HashMap<>();
-        List<String> missing = new ArrayList<>();
+        if (preloadedCodes != null) {
+            for (String name : uniqueNames) {
+                String code = preloadedCodes.get(name);
+                if (code != null) {
+                    codeByName.put(name, code);
+                } else {
+                    medicationRepo.findCodeByName(name)
+                            .ifPresentOrElse(
+                                    found -> codeByName.put(name, found),
+                                    () -> missing.add(name)
+                            );
+                }
+            }
+            return;
+        }
+
+        if (lookupConcurrency == 1 || uniqueNames.size() < 2) {
+            for (String name : uniqueNames) {
+                medicationRepo.findCodeByName(name)
+                        .ifPresentOrElse(
+                                code -> codeByName.put(name, code),
+                                () -> missing.add(name)
+                        );
+            }
+            return;
+        }
 
-        for (String name : uniqueNames) {
-            medicationRepo.findCodeByName(name)
+        List<Future<Optional<String>>> lookups = new ArrayList<>(uniqueNames.size());
+        Semaphore permits = new Semaphore(lookupConcurrency);
+        try (FailFastScope scope = new FailFastScope()) {
+            for (String name : uniqueNames) {
+                lookups.add(scope.fork(() -> {
+                    try {
+                        permits.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Medication lookup cancelled: " + name);
+                    }
+                    try {
+                        return medicationRepo.findCodeByName(name);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            scope.join();
+        }
+
+        for (int i = 0; i < uniqueNames.size(); i++) {
+            String name = uniqueNames.get(i);
+            lookups.get(i).resultNow()
                     .ifPresentOrElse(
                             code -> codeByName.put(name, code),
                             () -> missing.add(name)
                     );
         }
-        if (!missing.isEmpty()) {
-            throw new IllegalArgumentException("Medication(s) not found in reference table: " + String.join(", ", missing));
-        }
+    }
 
-        List<StockModel> out = new ArrayList<>(rows.size());
-        for (StockFileModel r : rows) {
-            String name = r.medicineName().trim();
-            out.add(new StockModel(
-                    r.cnpj(),
-                    r.medicineName(),
-                    codeByName.get(name),
-                    r.quantity(),
-                    r.referenceDate(),
-                    null
-            ));
-        }
-        return out;
+    private StockModel toModel(StockFileModel r, String medicineCode) {
+        return new StockModel(
+                r.cnpj(),
+                r.medicineName(),
+                medicineCode,
+                r.quantity(),
+                r.referenceDate(),
+                null
+        );
     }
 }
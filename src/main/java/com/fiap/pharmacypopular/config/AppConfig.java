@@ -3,13 +3,55 @@ package com.fiap.pharmacypopular.config;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.fiap.pharmacypopular.adapter.blob.AzureBlobArchiveAdapter;
 import com.fiap.pharmacypopular.adapter.blob.AzureBlobStorageAdapter;
+import com.fiap.pharmacypopular.adapter.blob.FileSystemBlobArchiveAdapter;
+import com.fiap.pharmacypopular.adapter.blob.FileSystemBlobStorageAdapter;
+import com.fiap.pharmacypopular.adapter.blob.RangedDownloadSettings;
+import com.fiap.pharmacypopular.adapter.db.InboxDiscoveryStateAdapter;
+import com.fiap.pharmacypopular.adapter.diagnostics.FlightRecorderSnapshotAdapter;
 import com.fiap.pharmacypopular.adapter.db.IngestionControlAdapter;
+import com.fiap.pharmacypopular.adapter.db.IngestionControlPartitionAdapter;
 import com.fiap.pharmacypopular.adapter.db.MedicationRepositoryAdapter;
 import com.fiap.pharmacypopular.adapter.db.PharmacyRepositoryAdapter;
+import com.fiap.pharmacypopular.adapter.db.PoolWaitMetricsTrackerFactory;
+import com.fiap.pharmacypopular.adapter.db.ReadReplicaRouter;
+import com.fiap.pharmacypopular.adapter.db.ReplayJobAdapter;
+import com.fiap.pharmacypopular.adapter.db.StockChangeOutboxAdapter;
 import com.fiap.pharmacypopular.adapter.db.StockRepositoryAdapter;
+import com.fiap.pharmacypopular.adapter.db.StockSummaryAdapter;
+import com.fiap.pharmacypopular.adapter.resilience.BackendPressureMonitor;
+import com.fiap.pharmacypopular.adapter.resilience.CircuitBreaker;
+import com.fiap.pharmacypopular.adapter.resilience.HedgedDownloader;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientBlobStorageAdapter;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientExecutor;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientIngestionControlAdapter;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientMedicationRepositoryAdapter;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientPharmacyRepositoryAdapter;
+import com.fiap.pharmacypopular.adapter.resilience.ResilientStockRepositoryAdapter;
+import com.fiap.pharmacypopular.adapter.sink.BlobStockChangeSinkAdapter;
+import com.fiap.pharmacypopular.adapter.sink.FileStockChangeSinkAdapter;
+import com.fiap.pharmacypopular.adapter.sink.InMemoryStockChangeSinkAdapter;
+import com.fiap.pharmacypopular.aplication.AdaptiveConcurrencyLimiter;
+import com.fiap.pharmacypopular.aplication.ArchiveBlobsUseCase;
+import com.fiap.pharmacypopular.aplication.ArchiveLayout;
 import com.fiap.pharmacypopular.aplication.IngestStockFilesUseCase;
+import com.fiap.pharmacypopular.aplication.IngestionProfileQueryUseCase;
+import com.fiap.pharmacypopular.aplication.MaintainIngestionControlUseCase;
+import com.fiap.pharmacypopular.aplication.PharmacyFairScheduler;
+import com.fiap.pharmacypopular.aplication.RelayStockChangesUseCase;
+import com.fiap.pharmacypopular.aplication.ReplayJobsUseCase;
+import com.fiap.pharmacypopular.aplication.ReplayProcessedFilesUseCase;
+import com.fiap.pharmacypopular.aplication.RowQuarantinePolicy;
+import com.fiap.pharmacypopular.aplication.SlowIngestionSnapshots;
+import com.fiap.pharmacypopular.aplication.StockGroupCommitBuffer;
+import com.fiap.pharmacypopular.aplication.VerifyStockSummaryUseCase;
+import com.fiap.pharmacypopular.aplication.service.BundleCodec;
+import com.fiap.pharmacypopular.aplication.service.CsvStockFileFormat;
 import com.fiap.pharmacypopular.aplication.service.FileStockValidatorService;
+import com.fiap.pharmacypopular.aplication.service.InboxDiscoveryService;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormat;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormats;
 import com.fiap.pharmacypopular.aplication.service.StockFileParserService;
 import com.fiap.pharmacypopular.aplication.service.StockMedicationCodeService;
 import com.fiap.pharmacypopular.aplication.service.StockProcessorStatusService;
@@ -19,53 +61,482 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
 
 public class AppConfig {
+
+    private static final Logger LOGGER = Logger.getLogger("AppConfig");
+    private static final long MB = 1024L * 1024L;
+    private static final String PARQUET_FORMAT_CLASS = "com.fiap.pharmacypopular.adapter.file.ParquetStockFileFormat";
+    private static final ReentrantLock COMPONENTS_LOCK = new ReentrantLock();
+
+    private static volatile Components components;
+
     private AppConfig() {}
 
     public static IngestStockFilesUseCase useCase() {
-        return Holder.USE_CASE;
+        return components().useCase();
+    }
+
+    public static ReplayJobsUseCase replayJobs() {
+        return components().replayJobs();
+    }
+
+    public static ArchiveBlobsUseCase archiveBlobs() {
+        return components().archive();
+    }
+
+    public static IngestionProfileQueryUseCase ingestionProfileQuery() {
+        return components().profileQuery();
+    }
+
+    public static VerifyStockSummaryUseCase verifyStockSummary() {
+        return components().verifySummary();
+    }
+
+    public static RelayStockChangesUseCase stockChangeRelay() {
+        return components().stockChangeRelay();
     }
 
-    private static final class Holder {
-        private static final IngestStockFilesUseCase USE_CASE = buildUseCase();
+    public static MaintainIngestionControlUseCase ingestionControlRetention() {
+        return components().controlRetention();
+    }
+
+    public static boolean stockOutboxEnabled() {
+        return Boolean.parseBoolean(envOr("STOCK_OUTBOX_ENABLED", "false"));
+    }
+
+    public static boolean stockSummaryEnabled() {
+        return Boolean.parseBoolean(envOr("STOCK_SUMMARY_ENABLED", "false"));
+    }
+
+    public static boolean warmUpOnStartup() {
+        return Boolean.parseBoolean(envOr("WARMUP_ON_STARTUP", "false"));
+    }
+
+    public static void warmUpAsync() {
+        Thread.ofPlatform()
+                .name("ingestion-warmup")
+                .daemon(true)
+                .start(AppConfig::warmUp);
+    }
+
+    public static void warmUp() {
+        long start = System.nanoTime();
+        try {
+            Components components = components();
+
+            try (Connection c = components.dataSource().getConnection()) {
+                c.isValid(5);
+            }
+            if (components.container() != null) {
+                components.container().exists();
+            }
+            components.useCase().warmUp();
+
+            LOGGER.info("Warm-up finished in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        } catch (Exception e) {
+            LOGGER.warning("Warm-up failed after " + (System.nanoTime() - start) / 1_000_000
+                    + "ms, first run will initialize lazily: " + e.getMessage());
+        }
     }
 
-    private static DataSource buildDataSource() {
+    private record Components(
+            DataSource dataSource,
+            BlobContainerClient container,
+            IngestStockFilesUseCase useCase,
+            ReplayJobsUseCase replayJobs,
+            ArchiveBlobsUseCase archive,
+            IngestionProfileQueryUseCase profileQuery,
+            VerifyStockSummaryUseCase verifySummary,
+            RelayStockChangesUseCase stockChangeRelay,
+            MaintainIngestionControlUseCase controlRetention
+    ) {}
+
+    private static Components components() {
+        Components current = components;
+        if (current != null) {
+            return current;
+        }
+        COMPONENTS_LOCK.lock();
+        try {
+            if (components == null) {
+                components = buildComponents();
+            }
+            return components;
+        } finally {
+            COMPONENTS_LOCK.unlock();
+        }
+    }
+
+    private static Components buildComponents() {
+        List<AutoCloseable> opened = new ArrayList<>();
+        try {
+            BackendPressureMonitor pressure = new BackendPressureMonitor();
+            DataSource dataSource = buildDataSource(pressure, opened);
+            ReadReplicaRouter reads = buildReadRouter(dataSource, opened);
+            BlobContainerClient container = buildContainer();
+            Ports ports = buildPorts(reads, container, pressure);
+            StockFileFormats formats = stockFileFormats(opened);
+            VerifyStockSummaryUseCase verifySummary = new VerifyStockSummaryUseCase(new StockSummaryAdapter(dataSource),
+                    Boolean.parseBoolean(envOr("STOCK_SUMMARY_REPAIR_ON_DRIFT", "false")));
+            if (stockSummaryEnabled()) {
+                verifySummary.initialize();
+            }
+            return new Components(
+                    dataSource,
+                    container,
+                    buildUseCase(dataSource, ports, pressure, container, formats, opened),
+                    new ReplayJobsUseCase(new ReplayJobAdapter(dataSource), buildReplayUseCase(ports, formats),
+                            Duration.ofMinutes(Long.parseLong(envOr("REPLAY_JOB_STALE_MINUTES", "15"))),
+                            Integer.parseInt(envOr("REPLAY_JOB_MAX_ATTEMPTS", "3")),
+                            Integer.parseInt(envOr("REPLAY_JOB_CHECKPOINT_PHARMACIES", "50")),
+                            Duration.ofSeconds(Long.parseLong(envOr("REPLAY_JOB_SLICE_SECONDS", "180")))),
+                    buildArchiveUseCase(ports),
+                    new IngestionProfileQueryUseCase(new IngestionControlAdapter(reads)),
+                    verifySummary,
+                    stockOutboxEnabled() ? buildStockChangeRelay(dataSource, container) : null,
+                    new MaintainIngestionControlUseCase(new IngestionControlPartitionAdapter(dataSource),
+                            Integer.parseInt(envOr("CONTROL_RETENTION_MONTHS", "6")),
+                            Integer.parseInt(envOr("CONTROL_PARTITIONS_AHEAD_MONTHS", "3"))));
+        } catch (RuntimeException | Error e) {
+            closeQuietly(opened);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(List<AutoCloseable> opened) {
+        for (int i = opened.size() - 1; i >= 0; i--) {
+            try {
+                opened.get(i).close();
+            } catch (Exception e) {
+                LOGGER.warning("Failed to release resource after initialization failure: reason=" + e.getMessage());
+            }
+        }
+    }
+
+    private static DataSource buildDataSource(BackendPressureMonitor pressure, List<AutoCloseable> opened) {
+        int poolSize = dbPoolSize();
         HikariConfig cfg = new HikariConfig();
         cfg.setJdbcUrl(env("DB_URL"));
         cfg.setUsername(env("DB_USER"));
         cfg.setPassword(env("DB_PASSWORD"));
-        cfg.setMaximumPoolSize(3);
-        return new HikariDataSource(cfg);
+        cfg.setMaximumPoolSize(poolSize);
+        cfg.setMinimumIdle(poolSize);
+        cfg.setMetricsTrackerFactory(new PoolWaitMetricsTrackerFactory(pressure));
+        HikariDataSource dataSource = new HikariDataSource(cfg);
+        opened.add(dataSource);
+        return dataSource;
+    }
+
+    private static int dbPoolSize() {
+        return Integer.parseInt(envOr("DB_POOL_SIZE", "3"));
+    }
+
+    private static ReadReplicaRouter buildReadRouter(DataSource primary, List<AutoCloseable> opened) {
+        String replicaUrl = System.getenv("REPLICA_DB_URL");
+        if (replicaUrl == null || replicaUrl.isBlank()) {
+            return ReadReplicaRouter.primaryOnly(primary);
+        }
+        int poolSize = Integer.parseInt(envOr("REPLICA_DB_POOL_SIZE", "3"));
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("replica");
+        cfg.setJdbcUrl(replicaUrl);
+        cfg.setUsername(envOr("REPLICA_DB_USER", env("DB_USER")));
+        cfg.setPassword(envOr("REPLICA_DB_PASSWORD", env("DB_PASSWORD")));
+        cfg.setMaximumPoolSize(poolSize);
+        cfg.setMinimumIdle(poolSize);
+        cfg.setReadOnly(true);
+        cfg.setConnectionTimeout(Long.parseLong(envOr("REPLICA_CONNECTION_TIMEOUT_MS", "1000")));
+        cfg.setInitializationFailTimeout(-1);
+        HikariDataSource replica = new HikariDataSource(cfg);
+        opened.add(replica);
+        return new ReadReplicaRouter(primary, replica,
+                Duration.ofSeconds(Long.parseLong(envOr("REPLICA_RETRY_AFTER_SECONDS", "30"))));
+    }
+
+    private static RelayStockChangesUseCase buildStockChangeRelay(DataSource dataSource, BlobContainerClient container) {
+        return new RelayStockChangesUseCase(new StockChangeOutboxAdapter(dataSource), buildStockChangeSink(container),
+                Integer.parseInt(envOr("STOCK_OUTBOX_BATCH_SIZE", "500")),
+                Integer.parseInt(envOr("STOCK_OUTBOX_MAX_BATCHES", "100")));
+    }
+
+    private static StockChangeSinkPort buildStockChangeSink(BlobContainerClient container) {
+        String sink = envOr("STOCK_OUTBOX_SINK", localBlobBackend() ? "file" : "blob");
+        if (!"blob".equals(sink) && !localBlobBackend()) {
+            throw new IllegalStateException("STOCK_OUTBOX_SINK=" + sink
+                    + " is not durable and is only allowed with BLOB_BACKEND=filesystem");
+        }
+        return switch (sink) {
+            case "blob" -> {
+                if (container == null) {
+                    throw new IllegalStateException("STOCK_OUTBOX_SINK=blob requires BLOB_BACKEND=azure");
+                }
+                yield new BlobStockChangeSinkAdapter(container, envOr("STOCK_OUTBOX_PREFIX", "stock-changes/"));
+            }
+            case "file" -> new FileStockChangeSinkAdapter(Path.of(envOr("STOCK_OUTBOX_FILE",
+                    Path.of(System.getProperty("java.io.tmpdir"), "stock-changes.jsonl").toString())));
+            case "memory" -> new InMemoryStockChangeSinkAdapter();
+            default -> throw new IllegalStateException("Invalid STOCK_OUTBOX_SINK (expected blob, file or memory): " + sink);
+        };
+    }
+
+    private static boolean localBlobBackend() {
+        return "filesystem".equalsIgnoreCase(envOr("BLOB_BACKEND", "azure"));
+    }
+
+    private static BlobContainerClient buildContainer() {
+        if (localBlobBackend()) {
+            return null;
+        }
+        BlobServiceClient serviceClient = new BlobServiceClientBuilder()
+                .connectionString(env("BLOB_CONNECTION"))
+                .buildClient();
+
+        return serviceClient.getBlobContainerClient(env("BLOB_CONTAINER"));
     }
 
-    private static IngestStockFilesUseCase buildUseCase() {
-        String blobConn = env("BLOB_CONNECTION");
-        String containerName = env("BLOB_CONTAINER");
+    private record Ports(
+            BlobStoragePort blob,
+            PharmacyRepositoryPort pharmacy,
+            IngestionControlRepositoryPort ingestion,
+            MedicationRepositoryPort medication,
+            StockRepositoryPort stock,
+            BlobArchivePort archive
+    ) {}
+
+    private static Ports buildPorts(ReadReplicaRouter reads, BlobContainerClient container,
+                                    BackendPressureMonitor pressure) {
         String inboxPrefix = env("INBOX_PREFIX");
         String processedPrefix = envOr("PROCESSED_PREFIX", "processed/");
         String errorPrefix = envOr("ERROR_PREFIX", "error/");
+        String archivePrefix = envOr("ARCHIVE_PREFIX", "archive/");
+
+        RangedDownloadSettings rangedDownload = new RangedDownloadSettings(
+                Long.parseLong(envOr("LARGE_BLOB_THRESHOLD_MB", "32")) * MB,
+                Long.parseLong(envOr("DOWNLOAD_BLOCK_SIZE_MB", "8")) * MB,
+                Integer.parseInt(envOr("DOWNLOAD_CONCURRENCY", "4")),
+                Path.of(envOr("SPOOL_DIR", System.getProperty("java.io.tmpdir"))));
+
+        BlobStoragePort blobPort = localBlobBackend()
+                ? new FileSystemBlobStorageAdapter(Path.of(env("BLOB_LOCAL_ROOT")), inboxPrefix, processedPrefix,
+                        errorPrefix)
+                : new AzureBlobStorageAdapter(container, inboxPrefix, processedPrefix, errorPrefix, rangedDownload);
+        BlobArchivePort archivePort = localBlobBackend()
+                ? new FileSystemBlobArchiveAdapter(Path.of(env("BLOB_LOCAL_ROOT")), processedPrefix, errorPrefix,
+                        archivePrefix)
+                : new AzureBlobArchiveAdapter(container, processedPrefix, errorPrefix, archivePrefix);
+        PharmacyRepositoryPort pharmacyRepo = new PharmacyRepositoryAdapter(reads);
+        IngestionControlRepositoryPort ingestionRepo = new IngestionControlAdapter(reads);
+        MedicationRepositoryPort medicationRepo = new MedicationRepositoryAdapter(reads);
+        StockRepositoryPort stockRepo = new StockRepositoryAdapter(reads.primary(),
+                stockSummaryEnabled(),
+                stockOutboxEnabled());
+
+        if (Boolean.parseBoolean(envOr("RESILIENCE_ENABLED", "true"))) {
+            ResilientExecutor storage = resilientExecutor("storage", pressure);
+            ResilientExecutor database = resilientExecutor("database", pressure);
+            HedgedDownloader hedgedDownloader = Boolean.parseBoolean(envOr("HEDGE_DOWNLOADS_ENABLED", "true"))
+                    ? new HedgedDownloader(Double.parseDouble(envOr("HEDGE_PERCENTILE", "0.95")),
+                            Integer.parseInt(envOr("HEDGE_MIN_SAMPLES", "20")))
+                    : null;
+
+            blobPort = new ResilientBlobStorageAdapter(blobPort, storage, hedgedDownloader, rangedDownload.thresholdBytes());
+            pharmacyRepo = new ResilientPharmacyRepositoryAdapter(pharmacyRepo, database);
+            ingestionRepo = new ResilientIngestionControlAdapter(ingestionRepo, database);
+            medicationRepo = new ResilientMedicationRepositoryAdapter(medicationRepo, database);
+            stockRepo = new ResilientStockRepositoryAdapter(stockRepo, database);
+        }
+        return new Ports(blobPort, pharmacyRepo, ingestionRepo, medicationRepo, stockRepo, archivePort);
+    }
+
+    private static StockMedicationCodeService medicationCodeResolver(Ports ports) {
+        return new StockMedicationCodeService(ports.medication(),
+                Integer.parseInt(envOr("MEDICATION_LOOKUP_CONCURRENCY", "1")));
+    }
+
+    private static IngestStockFilesUseCase buildUseCase(DataSource ds, Ports ports, BackendPressureMonitor pressure,
+                                                        BlobContainerClient container, StockFileFormats formats,
+                                                        List<AutoCloseable> opened) {
+        String inboxPrefix = env("INBOX_PREFIX");
         int minAgeMinutes = Integer.parseInt(envOr("MIN_BLOB_AGE_MINUTES", "15"));
+        RowQuarantinePolicy quarantinePolicy = new RowQuarantinePolicy(
+                Boolean.parseBoolean(envOr("ROW_QUARANTINE_ENABLED", "false")),
+                Double.parseDouble(envOr("MAX_REJECT_RATIO", "0.1")));
+        int chunkSize = Integer.parseInt(envOr("UPSERT_CHUNK_SIZE", "0"));
 
-        BlobServiceClient serviceClient = new BlobServiceClientBuilder()
-                .connectionString(blobConn)
-                .buildClient();
+        InboxDiscoveryService inboxDiscovery = Boolean.parseBoolean(envOr("INCREMENTAL_DISCOVERY_ENABLED", "false"))
+                ? new InboxDiscoveryService(ports.blob(), new InboxDiscoveryStateAdapter(ds), inboxPrefix,
+                        Duration.ofMinutes(Long.parseLong(envOr("FULL_RECONCILE_EVERY_MINUTES", "360"))),
+                        Duration.ofMinutes(Long.parseLong(envOr("DISCOVERY_OVERLAP_MINUTES", String.valueOf(minAgeMinutes)))))
+                : new InboxDiscoveryService(ports.blob());
+
+        return new IngestStockFilesUseCase(ports.blob(), minAgeMinutes, formats,
+                ports.pharmacy(), ports.ingestion(),
+                new StockProcessorStatusService(new StockStatusCalculator()), medicationCodeResolver(ports),
+                ports.stock(), quarantinePolicy, chunkSize, inboxDiscovery,
+                Boolean.parseBoolean(envOr("INTRA_FILE_CONCURRENCY_ENABLED", "false")),
+                buildConcurrencyLimiter(pressure),
+                new PharmacyFairScheduler(priorityWeights()),
+                groupCommitSettings(),
+                slowIngestionSnapshots(container, opened));
+    }
+
+    private static SlowIngestionSnapshots slowIngestionSnapshots(BlobContainerClient container,
+                                                                 List<AutoCloseable> opened) {
+        if (!Boolean.parseBoolean(envOr("JFR_SNAPSHOTS_ENABLED", "false"))) {
+            return SlowIngestionSnapshots.disabled();
+        }
+        FlightRecorderSnapshotAdapter recorder;
+        try {
+            recorder = buildFlightRecorder(container);
+        } catch (RuntimeException e) {
+            LOGGER.warning("Flight recorder unavailable, slow ingestion snapshots disabled: reason=" + e.getMessage());
+            return SlowIngestionSnapshots.disabled();
+        }
+        opened.add(recorder);
+        return new SlowIngestionSnapshots(recorder,
+                Duration.ofSeconds(Long.parseLong(envOr("SLOW_RUN_THRESHOLD_SECONDS", "300"))),
+                Duration.ofSeconds(Long.parseLong(envOr("SLOW_FILE_THRESHOLD_SECONDS", "60"))));
+    }
+
+    private static FlightRecorderSnapshotAdapter buildFlightRecorder(BlobContainerClient container) {
+        String target = envOr("JFR_SNAPSHOT_TARGET", "local");
+        String diagnosticsPrefix = envOr("DIAGNOSTICS_PREFIX", "diagnostics/");
+        Path dumpDir = Path.of(envOr("JFR_DUMP_DIR", Path.of(System.getProperty("java.io.tmpdir"), "jfr").toString()));
+        Duration maxAge = Duration.ofMinutes(Long.parseLong(envOr("JFR_MAX_AGE_MINUTES", "30")));
+        long maxSize = Long.parseLong(envOr("JFR_MAX_SIZE_MB", "100")) * MB;
+        Duration minInterval = Duration.ofMinutes(Long.parseLong(envOr("JFR_SNAPSHOT_MIN_INTERVAL_MINUTES", "10")));
+
+        return switch (target) {
+            case "local" -> new FlightRecorderSnapshotAdapter(dumpDir, null, null, maxAge, maxSize, minInterval);
+            case "blob" -> localBlobBackend()
+                    ? new FlightRecorderSnapshotAdapter(Path.of(env("BLOB_LOCAL_ROOT")).resolve(diagnosticsPrefix),
+                            null, null, maxAge, maxSize, minInterval)
+                    : new FlightRecorderSnapshotAdapter(dumpDir, container, diagnosticsPrefix, maxAge, maxSize,
+                            minInterval);
+            default -> throw new IllegalStateException("Invalid JFR_SNAPSHOT_TARGET (expected local or blob): " + target);
+        };
+    }
+
+    private static StockFileFormats stockFileFormats(List<AutoCloseable> opened) {
+        boolean rejectDuplicates = Boolean.parseBoolean(envOr("DUPLICATE_MEDICINE_CHECK_ENABLED", "false"));
+        StockFileParserService parser = new StockFileParserService(rejectDuplicates);
+        if (Boolean.parseBoolean(envOr("PARALLEL_PARSE_ENABLED", "false"))) {
+            long thresholdBytes = Long.parseLong(envOr("PARALLEL_PARSE_THRESHOLD_MB", "32")) * MB;
+            int threads = Integer.parseInt(envOr("PARALLEL_PARSE_THREADS",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())));
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            opened.add(pool::shutdownNow);
+            parser = new StockFileParserService(thresholdBytes, pool, rejectDuplicates);
+            LOGGER.info("Parallel CSV parsing enabled: thresholdMb=" + thresholdBytes / MB + " threads=" + threads);
+        }
+        List<StockFileFormat> formats = new ArrayList<>();
+        formats.add(new CsvStockFileFormat(new FileStockValidatorService(), parser));
+        if (Boolean.parseBoolean(envOr("PARQUET_INPUT_ENABLED", "false"))) {
+            formats.add(parquetFormat(parser));
+        }
+        return new StockFileFormats(formats);
+    }
+
+    private static StockFileFormat parquetFormat(StockFileParserService parser) {
+        try {
+            return Class.forName(PARQUET_FORMAT_CLASS)
+                    .asSubclass(StockFileFormat.class)
+                    .getConstructor(StockFileParserService.class)
+                    .newInstance(parser);
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            throw new IllegalStateException("PARQUET_INPUT_ENABLED=true requires a package built with -Pparquet", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create Parquet input format", e);
+        }
+    }
+
+    private static StockGroupCommitBuffer.Settings groupCommitSettings() {
+        if (!Boolean.parseBoolean(envOr("GROUP_COMMIT_ENABLED", "false"))) {
+            return null;
+        }
+        return new StockGroupCommitBuffer.Settings(
+                Integer.parseInt(envOr("GROUP_COMMIT_MAX_ROWS", "5000")),
+                Duration.ofMillis(Long.parseLong(envOr("GROUP_COMMIT_MAX_DELAY_MS", "2000"))),
+                Integer.parseInt(envOr("GROUP_COMMIT_MAX_FILE_ROWS", "1000")));
+    }
+
+    private static Map<String, Integer> priorityWeights() {
+        int defaultPriorityWeight = Integer.parseInt(envOr("PRIORITY_WEIGHT", "4"));
+        Map<String, Integer> weights = new HashMap<>();
+        for (String entry : envOr("PRIORITY_CNPJS", "").split(",")) {
+            if (entry.isBlank()) continue;
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0], parts.length > 1 ? Integer.parseInt(parts[1]) : defaultPriorityWeight);
+        }
+        return weights;
+    }
+
+    private static AdaptiveConcurrencyLimiter buildConcurrencyLimiter(BackendPressureMonitor pressure) {
+        if (!Boolean.parseBoolean(envOr("ADAPTIVE_CONCURRENCY_ENABLED", "false"))) {
+            return null;
+        }
+        int poolSize = dbPoolSize();
+        int max = Integer.parseInt(envOr("ADAPTIVE_CONCURRENCY_MAX", String.valueOf(poolSize)));
+        if (max > poolSize) {
+            LOGGER.warning("ADAPTIVE_CONCURRENCY_MAX=" + max + " exceeds DB_POOL_SIZE=" + poolSize
+                    + ", capping at " + poolSize);
+            max = poolSize;
+        }
+        int min = Math.min(Integer.parseInt(envOr("ADAPTIVE_CONCURRENCY_MIN", "1")), max);
+        return new AdaptiveConcurrencyLimiter(pressure,
+                Integer.parseInt(envOr("ADAPTIVE_CONCURRENCY_INITIAL", "2")),
+                min,
+                max,
+                Double.parseDouble(envOr("ADAPTIVE_LATENCY_TOLERANCE", "2.0")),
+                Double.parseDouble(envOr("ADAPTIVE_MAX_POOL_WAIT_MS", "50")));
+    }
+
+    private static ReplayProcessedFilesUseCase buildReplayUseCase(Ports ports, StockFileFormats formats) {
+        int poolSize = dbPoolSize();
+        int concurrency = Integer.parseInt(envOr("REPLAY_CONCURRENCY", String.valueOf(poolSize)));
+        if (concurrency > poolSize) {
+            LOGGER.warning("REPLAY_CONCURRENCY=" + concurrency + " exceeds DB_POOL_SIZE=" + poolSize
+                    + ", capping at " + poolSize);
+            concurrency = poolSize;
+        }
+        return new ReplayProcessedFilesUseCase(ports.blob(), formats, ports.pharmacy(),
+                new StockProcessorStatusService(new StockStatusCalculator()),
+                medicationCodeResolver(ports), ports.stock(),
+                concurrency,
+                ports.archive(), new BundleCodec(), archiveLayout(),
+                Integer.parseInt(envOr("ARCHIVE_REPLAY_LOOKBACK_DAYS", "30")));
+    }
+
+    private static ArchiveBlobsUseCase buildArchiveUseCase(Ports ports) {
+        return new ArchiveBlobsUseCase(ports.archive(), new BundleCodec(), archiveLayout(),
+                Integer.parseInt(envOr("ARCHIVE_AFTER_DAYS", "1")),
+                Integer.parseInt(envOr("ARCHIVE_MAX_BUNDLES_PER_RUN", "200")));
+    }
+
+    private static ArchiveLayout archiveLayout() {
+        return new ArchiveLayout(Integer.parseInt(envOr("ARCHIVE_SHARDS", "16")));
+    }
 
-        BlobContainerClient container = serviceClient.getBlobContainerClient(containerName);
-        BlobStoragePort blobPort = new AzureBlobStorageAdapter(container, inboxPrefix, processedPrefix, errorPrefix);
-        FileStockValidatorService validator = new FileStockValidatorService();
-        DataSource ds = buildDataSource();
-        PharmacyRepositoryPort pharmacyRepo = new PharmacyRepositoryAdapter(ds);
-        IngestionControlRepositoryPort ingestionRepo = new IngestionControlAdapter(ds);
-        StockFileParserService csvParser = new StockFileParserService();
-        StockProcessorStatusService rowsProcessor = new StockProcessorStatusService(new StockStatusCalculator());
-        MedicationRepositoryPort medicationRepo = new MedicationRepositoryAdapter(ds);
-        StockMedicationCodeService rowsMedicationCodeResolver = new StockMedicationCodeService(medicationRepo);
-        StockRepositoryPort stockRepo = new StockRepositoryAdapter(ds);
-
-        return new IngestStockFilesUseCase(blobPort, minAgeMinutes, validator, pharmacyRepo, ingestionRepo,
-                csvParser, rowsProcessor, rowsMedicationCodeResolver, stockRepo);
+    private static ResilientExecutor resilientExecutor(String name, BackendPressureMonitor pressure) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(name,
+                Integer.parseInt(envOr("CIRCUIT_FAILURE_THRESHOLD", "5")),
+                Duration.ofSeconds(Long.parseLong(envOr("CIRCUIT_OPEN_SECONDS", "60"))));
+        return new ResilientExecutor(circuitBreaker,
+                Integer.parseInt(envOr("RETRY_MAX_ATTEMPTS", "3")),
+                Duration.ofMillis(Long.parseLong(envOr("RETRY_BASE_DELAY_MS", "200"))),
+                Duration.ofMillis(Long.parseLong(envOr("RETRY_MAX_DELAY_MS", "5000"))),
+                pressure);
     }
 
     private static String env(String key) {
@@ -0,0 +1,38 @@
+package com.fiap.pharmacypopular.config;
+
+import com.fiap.pharmacypopular.adapter.db.SchemaMigrator;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * Applies the versioned scripts under db/migration to DB_URL (see the migrate profile in pom.xml).
+ */
+public final class SchemaMigrationRun {
+
+    private SchemaMigrationRun() {}
+
+    public static void main(String[] args) {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("schema-migration");
+        cfg.setJdbcUrl(requireEnv("DB_URL"));
+        cfg.setUsername(requireEnv("DB_USER"));
+        cfg.setPassword(requireEnv("DB_PASSWORD"));
+        cfg.setMaximumPoolSize(1);
+
+        try (HikariDataSource dataSource = new HikariDataSource(cfg)) {
+            List<SchemaMigrator.Migration> applied = new SchemaMigrator(dataSource).migrate();
+            applied.forEach(m -> System.out.println("Applied V" + m.version() + "__" + m.description()));
+            System.out.println(applied.isEmpty() ? "Schema is up to date" : "Applied " + applied.size() + " migration(s)");
+        }
+    }
+
+    private static String requireEnv(String key) {
+        String value = System.getenv(key);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing env var: " + key);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+package com.fiap.pharmacypopular.domain.model;
+
+public record FileProcessingProfile(
+        Long fileSizeBytes,
+        Integer rowCount,
+        Integer acceptedRows,
+        Integer rejectedRows,
+        Integer distinctMedicines,
+        Integer changedRows,
+        Long downloadMillis,
+        Long parseMillis,
+        Long resolveMillis,
+        Long upsertMillis
+) {}
@@ -0,0 +1,13 @@
+package com.fiap.pharmacypopular.domain.model;
+
+import java.time.OffsetDateTime;
+
+public record FileProfileSummary(
+        long id,
+        String blobPath,
+        String cnpj,
+        IngestStatus status,
+        OffsetDateTime receivedAt,
+        Long totalMillis,
+        FileProcessingProfile profile
+) {}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.domain.model;
+
+import java.time.OffsetDateTime;
+
+public record InboxDiscoveryState(
+        OffsetDateTime highWaterMark,
+        OffsetDateTime lastFullListingAt
+) {}
@@ -2,5 +2,7 @@ package com.fiap.pharmacypopular.domain.model;
 
 public record IngestionControlModel(
         long id,
-        IngestStatus status
+        IngestStatus status,
+        int committedRows,
+        Long committedDigest
 ) {}
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.fiap.pharmacypopular.domain.model;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public record ReplayJob(
+        long id,
+        List<String> cnpjs,
+        List<String> targets,
+        String lastCnpj,
+        ReplayJobStatus status,
+        int attempts,
+        OffsetDateTime requestedAt,
+        OffsetDateTime startedAt,
+        OffsetDateTime finishedAt,
+        Integer pharmacies,
+        Integer replayed,
+        Integer skipped,
+        Integer failed,
+        Long rows,
+        Long elapsedMillis,
+        String errorReason
+) {}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.domain.model;
+
+public enum ReplayJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,14 @@
+package com.fiap.pharmacypopular.domain.model;
+
+import java.time.OffsetDateTime;
+
+public record StockChangeEvent(
+        long id,
+        String cnpj,
+        String medicineCode,
+        Integer oldQuantity,
+        int newQuantity,
+        StockStatus oldStatus,
+        StockStatus newStatus,
+        OffsetDateTime changedAt
+) {}
@@ -0,0 +1,9 @@
+package com.fiap.pharmacypopular.domain.model;
+
+import java.util.List;
+
+public record StockFileBatch(
+        long ingestionId,
+        List<StockEntry> rows,
+        FileProcessingProfile profile
+) {}
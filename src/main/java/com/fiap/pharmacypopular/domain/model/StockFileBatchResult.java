@@ -0,0 +1,11 @@
+package com.fiap.pharmacypopular.domain.model;
+
+public record StockFileBatchResult(
+        long ingestionId,
+        int changedRows,
+        String error
+) {
+    public boolean committed() {
+        return error == null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.domain.model;
+
+public record StockSummaryDrift(
+        String medicineCode,
+        StockStatus status,
+        long storedCount,
+        long actualCount
+) {}
@@ -0,0 +1,8 @@
+package com.fiap.pharmacypopular.domain.port;
+
+public interface BackendPressurePort {
+
+    record Snapshot(double poolWaitMillis, long poolTimeouts, long throttledResponses) {}
+
+    Snapshot snapshot();
+}
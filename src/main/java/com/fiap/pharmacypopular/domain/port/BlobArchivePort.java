@@ -0,0 +1,30 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BlobArchivePort {
+
+    enum Area { PROCESSED, ERROR }
+
+    record ArchivableBlob(String name, String cnpj, OffsetDateTime lastModified, long size) {}
+
+    List<ArchivableBlob> listArchivable(Area area, OffsetDateTime modifiedBefore);
+
+    InputStream open(String blobName);
+
+    void delete(String blobName);
+
+    OutputStream openBundle(String bundleKey);
+
+    void writeBundleIndex(String bundleKey, byte[] index);
+
+    List<String> listBundles(String bundleKeyPrefix);
+
+    Optional<byte[]> readBundleIndex(String bundleKey);
+
+    byte[] readBundleRange(String bundleKey, long offset, long length);
+}
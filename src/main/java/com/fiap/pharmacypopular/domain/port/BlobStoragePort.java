@@ -1,17 +1,28 @@
 package com.fiap.pharmacypopular.domain.port;
 
+import java.nio.ByteBuffer;
 import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface BlobStoragePort {
 
-    record BlobRef(String name, String etag, OffsetDateTime lastModified) {}
+    record BlobRef(String name, String etag, OffsetDateTime lastModified, long size) {}
 
     List<BlobRef> listInboxBlobs();
 
+    List<BlobRef> listInboxBlobsUploadedBetween(OffsetDateTime after, OffsetDateTime upTo);
+
     byte[] download(String blobName);
 
+    ByteBuffer downloadContent(BlobRef blob);
+
     void moveToProcessed(String inboxBlobName);
 
     void moveToError(String inboxBlobName);
+
+    void writeRejectReport(String inboxBlobName, byte[] content);
+
+    List<String> listProcessedCnpjs();
+
+    List<BlobRef> listProcessedBlobs(String cnpj);
 }
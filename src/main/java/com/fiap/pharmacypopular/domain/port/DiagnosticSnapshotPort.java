@@ -0,0 +1,7 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import java.time.Duration;
+
+public interface DiagnosticSnapshotPort {
+    void capture(String trigger, String subject, Duration elapsed);
+}
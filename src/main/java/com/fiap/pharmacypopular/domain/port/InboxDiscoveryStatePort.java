@@ -0,0 +1,12 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import com.fiap.pharmacypopular.domain.model.InboxDiscoveryState;
+
+import java.util.Optional;
+
+public interface InboxDiscoveryStatePort {
+
+    Optional<InboxDiscoveryState> load(String source);
+
+    void save(String source, InboxDiscoveryState state);
+}
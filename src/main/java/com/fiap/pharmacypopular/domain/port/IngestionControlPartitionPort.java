@@ -0,0 +1,10 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface IngestionControlPartitionPort {
+    List<String> ensurePartitions(YearMonth from, YearMonth through);
+
+    List<String> dropPartitionsBefore(YearMonth cutoff);
+}
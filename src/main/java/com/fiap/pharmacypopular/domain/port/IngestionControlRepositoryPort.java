@@ -1,14 +1,20 @@
 package com.fiap.pharmacypopular.domain.port;
 
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+import com.fiap.pharmacypopular.domain.model.FileProfileSummary;
 import com.fiap.pharmacypopular.domain.model.IngestionControlModel;
 
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface IngestionControlRepositoryPort {
 
     Optional<IngestionControlModel> findByBlobPathAndEtag(String blobPath, String etag);
 
+    Optional<IngestionControlModel> findByBlobPathAndEtagConsistent(String blobPath, String etag);
+
     Optional<Long> startProcessing(
             String blobPath,
             String etag,
@@ -19,5 +25,11 @@ public interface IngestionControlRepositoryPort {
 
     void markProcessed(long id);
 
-    void markFailed(long id, String errorReason);
+    void markProcessed(long id, FileProcessingProfile profile);
+
+    void markFailed(long id, String errorReason, FileProcessingProfile profile);
+
+    List<FileProfileSummary> findSlowestFiles(OffsetDateTime from, OffsetDateTime to, int limit);
+
+    List<FileProfileSummary> findLargestFiles(OffsetDateTime from, OffsetDateTime to, int limit);
 }
@@ -1,8 +1,11 @@
 package com.fiap.pharmacypopular.domain.port;
 
 
+import java.util.Map;
 import java.util.Optional;
 
 public interface MedicationRepositoryPort {
     Optional<String> findCodeByName(String medicineName);
+
+    Map<String, String> findAllCodesByName();
 }
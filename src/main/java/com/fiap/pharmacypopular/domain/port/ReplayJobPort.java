@@ -0,0 +1,26 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import com.fiap.pharmacypopular.domain.model.ReplayJob;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReplayJobPort {
+
+    long enqueue(List<String> cnpjs);
+
+    Optional<ReplayJob> find(long id);
+
+    Optional<ReplayJob> claimNext(Duration staleAfter);
+
+    void start(long id, List<String> targets);
+
+    void checkpoint(long id, String lastCnpj, int replayed, int skipped, int failed, long rows, long elapsedMillis);
+
+    void requeue(long id);
+
+    void complete(long id);
+
+    void fail(long id, String reason);
+}
@@ -0,0 +1,5 @@
+package com.fiap.pharmacypopular.domain.port;
+
+public interface StockChangeOutboxPort {
+    int relayBatch(int batchSize, StockChangeSinkPort sink);
+}
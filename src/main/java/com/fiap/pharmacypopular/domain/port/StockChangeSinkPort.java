@@ -0,0 +1,9 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import com.fiap.pharmacypopular.domain.model.StockChangeEvent;
+
+import java.util.List;
+
+public interface StockChangeSinkPort {
+    void publish(List<StockChangeEvent> events);
+}
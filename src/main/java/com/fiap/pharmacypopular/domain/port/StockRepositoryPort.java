@@ -1,9 +1,19 @@
 package com.fiap.pharmacypopular.domain.port;
 
 import com.fiap.pharmacypopular.domain.model.StockEntry;
+import com.fiap.pharmacypopular.domain.model.StockFileBatch;
+import com.fiap.pharmacypopular.domain.model.StockFileBatchResult;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface StockRepositoryPort {
-    void upsertAll(List<StockEntry> rows);
+    int upsertAll(List<StockEntry> rows);
+
+    int upsertChunk(long ingestionId, List<StockEntry> rows, int committedRows, long committedDigest);
+
+    List<StockFileBatchResult> upsertGroup(List<StockFileBatch> files);
+
+    Optional<OffsetDateTime> lastUpdatedAt(String cnpj);
 }
@@ -0,0 +1,13 @@
+package com.fiap.pharmacypopular.domain.port;
+
+import com.fiap.pharmacypopular.domain.model.StockSummaryDrift;
+
+import java.util.List;
+
+public interface StockSummaryRepositoryPort {
+    List<StockSummaryDrift> findDrift();
+
+    int rebuild();
+
+    int initializeIfEmpty();
+}
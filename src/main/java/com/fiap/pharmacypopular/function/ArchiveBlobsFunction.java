@@ -0,0 +1,22 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.aplication.ArchiveRunResult;
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+public class ArchiveBlobsFunction {
+
+    @FunctionName("pharmacy-stock-archive")
+    public void run(
+        @TimerTrigger(name = "timerInfo", schedule = "%ARCHIVE_CRON%") String timerInfo,
+        final ExecutionContext context
+    ) {
+        ArchiveRunResult result = AppConfig.archiveBlobs().execute();
+        context.getLogger().info("Archive finished: bundles=" + result.bundles()
+                + ", members=" + result.members()
+                + ", failedBundles=" + result.failedBundles()
+                + ", elapsedMs=" + result.elapsedMillis());
+    }
+}
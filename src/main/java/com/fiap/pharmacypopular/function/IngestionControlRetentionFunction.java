@@ -0,0 +1,21 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.aplication.ControlRetentionResult;
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+public class IngestionControlRetentionFunction {
+
+    @FunctionName("pharmacy-ingestion-control-retention")
+    public void run(
+        @TimerTrigger(name = "timerInfo", schedule = "%CONTROL_RETENTION_CRON%") String timerInfo,
+        final ExecutionContext context
+    ) {
+        ControlRetentionResult result = AppConfig.ingestionControlRetention().execute();
+
+        context.getLogger().info("Ingestion control retention finished: created=" + result.createdPartitions().size()
+                + ", dropped=" + result.droppedPartitions().size());
+    }
+}
@@ -0,0 +1,78 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.aplication.IngestionProfileQueryUseCase;
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.fiap.pharmacypopular.domain.model.FileProcessingProfile;
+import com.fiap.pharmacypopular.domain.model.FileProfileSummary;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+public class IngestionProfileFunction {
+
+    private static final String HEADER = "id;blob_path;cnpj;status;received_at;total_ms;file_size_bytes;row_count;"
+            + "accepted_rows;rejected_rows;distinct_medicines;changed_rows;download_ms;parse_ms;resolve_ms;upsert_ms";
+
+    @FunctionName("pharmacy-stock-ingestion-profile")
+    public HttpResponseMessage run(
+        @HttpTrigger(name = "req", methods = {HttpMethod.GET}, authLevel = AuthorizationLevel.FUNCTION,
+                route = "ingestion/profile") HttpRequestMessage<Optional<String>> request,
+        final ExecutionContext context
+    ) {
+        String by = request.getQueryParameters().getOrDefault("by", "slowest");
+        List<FileProfileSummary> files;
+        try {
+            Duration window = Duration.ofHours(Long.parseLong(request.getQueryParameters().getOrDefault("hours", "24")));
+            int limit = Integer.parseInt(request.getQueryParameters().getOrDefault("limit", "20"));
+
+            IngestionProfileQueryUseCase query = AppConfig.ingestionProfileQuery();
+            files = switch (by) {
+                case "slowest" -> query.slowest(window, limit);
+                case "largest" -> query.largest(window, limit);
+                default -> throw new IllegalArgumentException("Invalid 'by' (expected slowest or largest): " + by);
+            };
+        } catch (IllegalArgumentException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST).body(e.getMessage()).build();
+        }
+
+        StringBuilder body = new StringBuilder(HEADER).append('\n');
+        for (FileProfileSummary f : files) {
+            FileProcessingProfile p = f.profile();
+            body.append(f.id()).append(';')
+                    .append(f.blobPath()).append(';')
+                    .append(f.cnpj()).append(';')
+                    .append(f.status()).append(';')
+                    .append(f.receivedAt()).append(';')
+                    .append(orEmpty(f.totalMillis())).append(';')
+                    .append(orEmpty(p.fileSizeBytes())).append(';')
+                    .append(orEmpty(p.rowCount())).append(';')
+                    .append(orEmpty(p.acceptedRows())).append(';')
+                    .append(orEmpty(p.rejectedRows())).append(';')
+                    .append(orEmpty(p.distinctMedicines())).append(';')
+                    .append(orEmpty(p.changedRows())).append(';')
+                    .append(orEmpty(p.downloadMillis())).append(';')
+                    .append(orEmpty(p.parseMillis())).append(';')
+                    .append(orEmpty(p.resolveMillis())).append(';')
+                    .append(orEmpty(p.upsertMillis())).append('\n');
+        }
+        context.getLogger().info("Ingestion profile query: by=" + by + ", rows=" + files.size());
+
+        return request.createResponseBuilder(HttpStatus.OK)
+                .header("Content-Type", "text/csv; charset=utf-8")
+                .body(body.toString())
+                .build();
+    }
+
+    private static String orEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
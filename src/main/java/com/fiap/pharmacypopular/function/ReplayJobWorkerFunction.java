@@ -0,0 +1,21 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.fiap.pharmacypopular.domain.model.ReplayJob;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+import java.util.Optional;
+
+public class ReplayJobWorkerFunction {
+
+    @FunctionName("pharmacy-stock-replay-worker")
+    public void run(
+        @TimerTrigger(name = "timerInfo", schedule = "%REPLAY_JOB_CRON%") String timerInfo,
+        final ExecutionContext context
+    ) {
+        Optional<ReplayJob> job = AppConfig.replayJobs().runNext();
+        job.ifPresent(j -> context.getLogger().info("Replay job slice finished: " + ReplayProcessedFilesFunction.describe(j)));
+    }
+}
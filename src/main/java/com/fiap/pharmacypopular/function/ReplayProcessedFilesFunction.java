@@ -0,0 +1,88 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.aplication.ReplayJobsUseCase;
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.fiap.pharmacypopular.domain.model.ReplayJob;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.BindingName;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+public class ReplayProcessedFilesFunction {
+
+    @FunctionName("pharmacy-stock-replay")
+    public HttpResponseMessage run(
+        @HttpTrigger(name = "req", methods = {HttpMethod.POST}, authLevel = AuthorizationLevel.ADMIN,
+                route = "ingestion/replay") HttpRequestMessage<Optional<String>> request,
+        final ExecutionContext context
+    ) {
+        String cnpjParam = request.getQueryParameters().get("cnpj");
+        context.getLogger().info("Replay requested: cnpj=" + (cnpjParam == null ? "ALL" : cnpjParam));
+
+        List<String> cnpjs = cnpjParam == null ? List.of() : Arrays.stream(cnpjParam.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+        long jobId = AppConfig.replayJobs().enqueue(cnpjs);
+
+        return request.createResponseBuilder(HttpStatus.ACCEPTED)
+                .header("Location", "/api/ingestion/replay/" + jobId)
+                .body("jobId=" + jobId + ", status=QUEUED")
+                .build();
+    }
+
+    @FunctionName("pharmacy-stock-replay-status")
+    public HttpResponseMessage status(
+        @HttpTrigger(name = "req", methods = {HttpMethod.GET}, authLevel = AuthorizationLevel.ADMIN,
+                route = "ingestion/replay/{id}") HttpRequestMessage<Optional<String>> request,
+        @BindingName("id") String id,
+        final ExecutionContext context
+    ) {
+        long jobId;
+        try {
+            jobId = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST).body("Invalid replay job id: " + id).build();
+        }
+
+        ReplayJobsUseCase jobs = AppConfig.replayJobs();
+        Optional<ReplayJob> job = jobs.find(jobId);
+        if (job.isEmpty()) {
+            return request.createResponseBuilder(HttpStatus.NOT_FOUND).body("Replay job not found: " + jobId).build();
+        }
+
+        return request.createResponseBuilder(HttpStatus.OK)
+                .body(describe(job.get()))
+                .build();
+    }
+
+    static String describe(ReplayJob job) {
+        return "jobId=" + job.id()
+                + ", status=" + job.status()
+                + ", attempts=" + job.attempts()
+                + ", lastCnpj=" + orEmpty(job.lastCnpj())
+                + ", requestedAt=" + job.requestedAt()
+                + ", startedAt=" + orEmpty(job.startedAt())
+                + ", finishedAt=" + orEmpty(job.finishedAt())
+                + ", pharmacies=" + orEmpty(job.pharmacies())
+                + ", replayed=" + orEmpty(job.replayed())
+                + ", skipped=" + orEmpty(job.skipped())
+                + ", failed=" + orEmpty(job.failed())
+                + ", rows=" + orEmpty(job.rows())
+                + ", elapsedMs=" + orEmpty(job.elapsedMillis())
+                + (job.errorReason() == null ? "" : ", error=" + job.errorReason());
+    }
+
+    private static String orEmpty(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
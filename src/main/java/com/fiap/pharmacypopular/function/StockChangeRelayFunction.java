@@ -0,0 +1,21 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+public class StockChangeRelayFunction {
+
+    @FunctionName("pharmacy-stock-change-relay")
+    public void run(
+        @TimerTrigger(name = "timerInfo", schedule = "%STOCK_OUTBOX_RELAY_CRON%") String timerInfo,
+        final ExecutionContext context
+    ) {
+        if (!AppConfig.stockOutboxEnabled()) {
+            return;
+        }
+        int published = AppConfig.stockChangeRelay().execute();
+        context.getLogger().info("Stock change relay finished: published=" + published);
+    }
+}
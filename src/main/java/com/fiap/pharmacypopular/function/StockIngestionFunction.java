@@ -1,21 +1,53 @@
 package com.fiap.pharmacypopular.function;
 
 import com.fiap.pharmacypopular.aplication.BatchRunResult;
+import com.fiap.pharmacypopular.aplication.IngestStockFilesUseCase;
 import com.fiap.pharmacypopular.config.AppConfig;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.annotation.FunctionName;
 import com.microsoft.azure.functions.annotation.TimerTrigger;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class StockIngestionFunction {
+
+    private static final AtomicBoolean FIRST_RUN = new AtomicBoolean(true);
+
+    static {
+        if (AppConfig.warmUpOnStartup()) {
+            AppConfig.warmUpAsync();
+        }
+    }
+
     @FunctionName("pharmacy-stock-ingestion-batch")
     public void run(
         @TimerTrigger(name = "timerInfo", schedule = "%CRON_TIME%") String timerInfo,
         final ExecutionContext context
     ) {
-        BatchRunResult result = AppConfig.useCase().execute();
+        boolean coldStart = FIRST_RUN.getAndSet(false);
+        long uptimeAtInvokeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        long invokeStart = System.nanoTime();
+
+        IngestStockFilesUseCase useCase = AppConfig.useCase();
+        long initMs = (System.nanoTime() - invokeStart) / 1_000_000;
+
+        BatchRunResult result = useCase.execute();
         context.getLogger().info("Run finished: eligible=" + result.eligible()
                 + ", processed=" + result.processed()
                 + ", failed=" + result.failed()
-                + ", duplicates=" + result.duplicates());
+                + ", duplicates=" + result.duplicates()
+                + ", deferred=" + result.deferred()
+                + ", firstProcessedMs=" + result.firstProcessedMillis());
+
+        if (coldStart) {
+            long timeToFirstProcessedMs = result.firstProcessedMillis() < 0
+                    ? -1
+                    : initMs + result.firstProcessedMillis();
+            context.getLogger().info("Cold start: jvmUptimeAtInvokeMs=" + uptimeAtInvokeMs
+                    + ", initMs=" + initMs
+                    + ", timeToFirstProcessedMs=" + timeToFirstProcessedMs
+                    + ", warmUpOnStartup=" + AppConfig.warmUpOnStartup());
+        }
     }
 }
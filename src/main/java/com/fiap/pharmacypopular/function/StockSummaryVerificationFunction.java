@@ -0,0 +1,25 @@
+package com.fiap.pharmacypopular.function;
+
+import com.fiap.pharmacypopular.aplication.StockSummaryVerificationResult;
+import com.fiap.pharmacypopular.config.AppConfig;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+public class StockSummaryVerificationFunction {
+
+    @FunctionName("pharmacy-stock-summary-verification")
+    public void run(
+        @TimerTrigger(name = "timerInfo", schedule = "%STOCK_SUMMARY_VERIFY_CRON%") String timerInfo,
+        final ExecutionContext context
+    ) {
+        if (!AppConfig.stockSummaryEnabled()) {
+            return;
+        }
+        StockSummaryVerificationResult result = AppConfig.verifyStockSummary().execute();
+
+        context.getLogger().info("Stock summary verification finished: drift=" + result.drift().size()
+                + ", repaired=" + result.repaired()
+                + ", rebuiltRows=" + result.rebuiltRows());
+    }
+}
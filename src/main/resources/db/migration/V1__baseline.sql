@@ -0,0 +1,71 @@
+DO $$
+BEGIN
+    IF to_regclass('pharmacy') IS NULL OR to_regclass('medication_name') IS NULL THEN
+        RAISE EXCEPTION 'Tables pharmacy and medication_name must exist before the ingestion schema is applied';
+    END IF;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS pharmacy_medicine_stock (
+    pharmacy_id VARCHAR(14) NOT NULL,
+    medicine_code TEXT NOT NULL,
+    quantity INTEGER NOT NULL,
+    stock_status TEXT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_pharmacy_medicine_stock_key ON pharmacy_medicine_stock (pharmacy_id, medicine_code);
+
+CREATE TABLE IF NOT EXISTS file_ingestion_control (
+    id BIGSERIAL PRIMARY KEY,
+    blob_path TEXT NOT NULL,
+    etag TEXT NOT NULL,
+    file_name TEXT NOT NULL,
+    cnpj VARCHAR(14) NOT NULL,
+    reference_date DATE NOT NULL,
+    status TEXT NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL,
+    processed_at TIMESTAMPTZ,
+    error_reason VARCHAR(1000)
+);
+
+ALTER TABLE file_ingestion_control
+    ADD COLUMN IF NOT EXISTS committed_rows INTEGER,
+    ADD COLUMN IF NOT EXISTS file_size_bytes BIGINT,
+    ADD COLUMN IF NOT EXISTS row_count INTEGER,
+    ADD COLUMN IF NOT EXISTS accepted_rows INTEGER,
+    ADD COLUMN IF NOT EXISTS rejected_rows INTEGER,
+    ADD COLUMN IF NOT EXISTS distinct_medicines INTEGER,
+    ADD COLUMN IF NOT EXISTS changed_rows INTEGER,
+    ADD COLUMN IF NOT EXISTS download_ms BIGINT,
+    ADD COLUMN IF NOT EXISTS parse_ms BIGINT,
+    ADD COLUMN IF NOT EXISTS resolve_ms BIGINT,
+    ADD COLUMN IF NOT EXISTS upsert_ms BIGINT;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_file_ingestion_control_blob_etag ON file_ingestion_control (blob_path, etag);
+
+CREATE TABLE IF NOT EXISTS inbox_discovery_state (
+    source TEXT PRIMARY KEY,
+    high_water_mark TIMESTAMPTZ,
+    last_full_listing_at TIMESTAMPTZ,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS medicine_stock_status_summary (
+    medicine_code TEXT NOT NULL,
+    stock_status TEXT NOT NULL,
+    pharmacy_count INTEGER NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (medicine_code, stock_status)
+);
+
+CREATE TABLE IF NOT EXISTS stock_change_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    pharmacy_id VARCHAR(14) NOT NULL,
+    medicine_code TEXT NOT NULL,
+    old_quantity INTEGER,
+    new_quantity INTEGER NOT NULL,
+    old_status TEXT,
+    new_status TEXT NOT NULL,
+    changed_at TIMESTAMPTZ NOT NULL
+);
@@ -0,0 +1,109 @@
+ALTER TABLE file_ingestion_control RENAME TO file_ingestion_control_legacy;
+
+CREATE SEQUENCE file_ingestion_id_seq;
+
+CREATE TABLE file_ingestion_control (
+    id BIGINT NOT NULL DEFAULT nextval('file_ingestion_id_seq'),
+    blob_path TEXT NOT NULL,
+    etag TEXT NOT NULL,
+    file_name TEXT NOT NULL,
+    cnpj VARCHAR(14) NOT NULL,
+    reference_date DATE NOT NULL,
+    status TEXT NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL,
+    processed_at TIMESTAMPTZ,
+    error_reason VARCHAR(1000),
+    committed_rows INTEGER,
+    file_size_bytes BIGINT,
+    row_count INTEGER,
+    accepted_rows INTEGER,
+    rejected_rows INTEGER,
+    distinct_medicines INTEGER,
+    changed_rows INTEGER,
+    download_ms BIGINT,
+    parse_ms BIGINT,
+    resolve_ms BIGINT,
+    upsert_ms BIGINT,
+    CONSTRAINT pk_file_ingestion_control PRIMARY KEY (id, received_at)
+) PARTITION BY RANGE (received_at);
+
+CREATE INDEX ix_file_ingestion_control_received_at ON file_ingestion_control (received_at);
+
+CREATE TABLE file_ingestion_control_pdefault PARTITION OF file_ingestion_control DEFAULT;
+
+-- (blob_path, etag) cannot be unique on the partitioned table without the partition key, so the
+-- idempotency claim lives in this narrow table and points at the control row.
+CREATE TABLE file_ingestion_key (
+    blob_path TEXT NOT NULL,
+    etag TEXT NOT NULL,
+    ingestion_id BIGINT NOT NULL,
+    received_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_file_ingestion_key PRIMARY KEY (blob_path, etag)
+);
+
+CREATE INDEX ix_file_ingestion_key_received_at ON file_ingestion_key (received_at);
+
+CREATE OR REPLACE FUNCTION file_ingestion_control_ensure_partitions(from_month DATE, through_month DATE)
+RETURNS SETOF TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    partition_name TEXT;
+BEGIN
+    WHILE month_start <= through_month LOOP
+        partition_name := 'file_ingestion_control_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF file_ingestion_control FOR VALUES FROM (%L) TO (%L)',
+                    partition_name,
+                    month_start::text || ' 00:00:00+00',
+                    (month_start + INTERVAL '1 month')::date::text || ' 00:00:00+00');
+            RETURN NEXT partition_name;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
+
+CREATE OR REPLACE FUNCTION file_ingestion_control_drop_partitions(before_month DATE)
+RETURNS SETOF TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+    cutoff TIMESTAMPTZ := (date_trunc('month', before_month)::date::text || ' 00:00:00+00')::timestamptz;
+    partition_name TEXT;
+BEGIN
+    FOR partition_name IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'file_ingestion_control'::regclass
+          AND c.relname ~ '^file_ingestion_control_p[0-9]{6}$'
+          AND to_date(right(c.relname, 6), 'YYYYMM') < date_trunc('month', before_month)::date
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('DROP TABLE %I', partition_name);
+        RETURN NEXT partition_name;
+    END LOOP;
+
+    DELETE FROM file_ingestion_control_pdefault WHERE received_at < cutoff;
+    DELETE FROM file_ingestion_key WHERE received_at < cutoff;
+END;
+$$;
+
+SELECT file_ingestion_control_ensure_partitions(
+        COALESCE((SELECT min(received_at) FROM file_ingestion_control_legacy), now())::date,
+        (now() + INTERVAL '3 months')::date);
+
+INSERT INTO file_ingestion_control (id, blob_path, etag, file_name, cnpj, reference_date, status, received_at,
+        processed_at, error_reason, committed_rows, file_size_bytes, row_count, accepted_rows, rejected_rows,
+        distinct_medicines, changed_rows, download_ms, parse_ms, resolve_ms, upsert_ms)
+SELECT id, blob_path, etag, file_name, cnpj, reference_date, status, received_at,
+        processed_at, error_reason, committed_rows, file_size_bytes, row_count, accepted_rows, rejected_rows,
+        distinct_medicines, changed_rows, download_ms, parse_ms, resolve_ms, upsert_ms
+FROM file_ingestion_control_legacy;
+
+INSERT INTO file_ingestion_key (blob_path, etag, ingestion_id, received_at)
+SELECT blob_path, etag, id, received_at FROM file_ingestion_control_legacy;
+
+SELECT setval('file_ingestion_id_seq', COALESCE((SELECT max(id) FROM file_ingestion_control_legacy), 0) + 1, false);
+
+DROP TABLE file_ingestion_control_legacy;
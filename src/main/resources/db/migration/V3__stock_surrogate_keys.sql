@@ -0,0 +1,48 @@
+CREATE TABLE pharmacy_key (
+    id INTEGER GENERATED ALWAYS AS IDENTITY,
+    cnpj VARCHAR(14) NOT NULL,
+    CONSTRAINT pk_pharmacy_key PRIMARY KEY (id),
+    CONSTRAINT ux_pharmacy_key_cnpj UNIQUE (cnpj)
+);
+
+CREATE TABLE medicine_key (
+    id INTEGER GENERATED ALWAYS AS IDENTITY,
+    medicine_code TEXT NOT NULL,
+    CONSTRAINT pk_medicine_key PRIMARY KEY (id),
+    CONSTRAINT ux_medicine_key_code UNIQUE (medicine_code)
+);
+
+INSERT INTO pharmacy_key (cnpj)
+SELECT DISTINCT pharmacy_id FROM pharmacy_medicine_stock ORDER BY pharmacy_id;
+
+INSERT INTO medicine_key (medicine_code)
+SELECT DISTINCT medicine_code FROM pharmacy_medicine_stock ORDER BY medicine_code;
+
+CREATE TABLE pharmacy_medicine_stock_keyed (
+    pharmacy_key INTEGER NOT NULL,
+    medicine_key INTEGER NOT NULL,
+    quantity INTEGER NOT NULL,
+    stock_status TEXT NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    CONSTRAINT pk_pharmacy_medicine_stock_keyed PRIMARY KEY (pharmacy_key, medicine_key)
+);
+
+INSERT INTO pharmacy_medicine_stock_keyed (pharmacy_key, medicine_key, quantity, stock_status, updated_at)
+SELECT p.id, m.id, s.quantity, s.stock_status, s.updated_at
+FROM pharmacy_medicine_stock s
+JOIN pharmacy_key p ON p.cnpj = s.pharmacy_id
+JOIN medicine_key m ON m.medicine_code = s.medicine_code
+ORDER BY p.id, m.id;
+
+DROP TABLE pharmacy_medicine_stock;
+
+-- Readers outside the ingestion keep querying by CNPJ and medicine code.
+CREATE VIEW pharmacy_medicine_stock AS
+SELECT p.cnpj AS pharmacy_id, m.medicine_code, s.quantity, s.stock_status, s.updated_at
+FROM pharmacy_medicine_stock_keyed s
+JOIN pharmacy_key p ON p.id = s.pharmacy_key
+JOIN medicine_key m ON m.id = s.medicine_key;
+
+ANALYZE pharmacy_key;
+ANALYZE medicine_key;
+ANALYZE pharmacy_medicine_stock_keyed;
@@ -0,0 +1,19 @@
+CREATE TABLE replay_job (
+    id BIGINT GENERATED ALWAYS AS IDENTITY,
+    cnpjs TEXT[],
+    status TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    requested_at TIMESTAMPTZ NOT NULL,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ,
+    pharmacies INTEGER,
+    replayed INTEGER,
+    skipped INTEGER,
+    failed INTEGER,
+    replayed_rows BIGINT,
+    elapsed_ms BIGINT,
+    error_reason VARCHAR(1000),
+    CONSTRAINT pk_replay_job PRIMARY KEY (id)
+);
+
+CREATE INDEX ix_replay_job_status ON replay_job (status, id);
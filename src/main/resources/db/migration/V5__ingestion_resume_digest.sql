@@ -0,0 +1,2 @@
+ALTER TABLE file_ingestion_control
+    ADD COLUMN IF NOT EXISTS committed_digest BIGINT;
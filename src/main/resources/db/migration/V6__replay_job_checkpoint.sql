@@ -0,0 +1,4 @@
+ALTER TABLE replay_job
+    ADD COLUMN targets TEXT[],
+    ADD COLUMN last_cnpj TEXT,
+    ADD COLUMN heartbeat_at TIMESTAMPTZ;
@@ -0,0 +1,42 @@
+-- A month whose rows already landed in the DEFAULT partition cannot get its own partition directly:
+-- CREATE TABLE ... PARTITION OF fails on the default partition constraint. Detach the default,
+-- create the month, move its rows over and attach the default back, all in the caller's transaction.
+CREATE OR REPLACE FUNCTION file_ingestion_control_ensure_partitions(from_month DATE, through_month DATE)
+RETURNS SETOF TEXT
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::date;
+    lower_bound TIMESTAMPTZ;
+    upper_bound TIMESTAMPTZ;
+    partition_name TEXT;
+    moved BIGINT;
+BEGIN
+    WHILE month_start <= through_month LOOP
+        partition_name := 'file_ingestion_control_p' || to_char(month_start, 'YYYYMM');
+        IF to_regclass(partition_name) IS NULL THEN
+            lower_bound := (month_start::text || ' 00:00:00+00')::timestamptz;
+            upper_bound := ((month_start + INTERVAL '1 month')::date::text || ' 00:00:00+00')::timestamptz;
+
+            IF EXISTS (SELECT 1 FROM file_ingestion_control_pdefault
+                       WHERE received_at >= lower_bound AND received_at < upper_bound) THEN
+                ALTER TABLE file_ingestion_control DETACH PARTITION file_ingestion_control_pdefault;
+                EXECUTE format('CREATE TABLE %I PARTITION OF file_ingestion_control FOR VALUES FROM (%L) TO (%L)',
+                        partition_name, lower_bound, upper_bound);
+                INSERT INTO file_ingestion_control
+                SELECT * FROM file_ingestion_control_pdefault
+                WHERE received_at >= lower_bound AND received_at < upper_bound;
+                GET DIAGNOSTICS moved = ROW_COUNT;
+                DELETE FROM file_ingestion_control_pdefault
+                WHERE received_at >= lower_bound AND received_at < upper_bound;
+                ALTER TABLE file_ingestion_control ATTACH PARTITION file_ingestion_control_pdefault DEFAULT;
+                RAISE NOTICE 'Moved % rows from the default partition into %', moved, partition_name;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF file_ingestion_control FOR VALUES FROM (%L) TO (%L)',
+                        partition_name, lower_bound, upper_bound);
+            END IF;
+            RETURN NEXT partition_name;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END;
+$$;
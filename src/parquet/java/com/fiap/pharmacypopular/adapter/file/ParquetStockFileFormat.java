@@ -0,0 +1,430 @@
+package com.fiap.pharmacypopular.adapter.file;
+
+import com.fiap.pharmacypopular.adapter.exception.InfrastructureException;
+import com.fiap.pharmacypopular.aplication.exception.FileValidationException;
+import com.fiap.pharmacypopular.aplication.model.RowRejection;
+import com.fiap.pharmacypopular.aplication.model.StockFileModel;
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+import com.fiap.pharmacypopular.aplication.service.StockFileFormat;
+import com.fiap.pharmacypopular.aplication.service.StockFileParserService;
+import org.apache.parquet.column.ColumnReader;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.column.impl.ColumnReadStoreImpl;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ParquetStockFileFormat implements StockFileFormat {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CNPJ = "cnpj";
+    private static final String MEDICINE_NAME = "medicine_name";
+    private static final String QUANTITY = "quantity";
+    private static final String REFERENCE_DATE = "reference_date";
+
+    private final StockFileParserService rules;
+
+    public ParquetStockFileFormat(StockFileParserService rules) {
+        this.rules = rules;
+    }
+
+    @Override
+    public String extension() {
+        return "parquet";
+    }
+
+    @Override
+    public void validate(ByteBuffer content, String fileName) {
+        validateHeader(content, fileName);
+    }
+
+    @Override
+    public void validateHeader(ByteBuffer content, String fileName) {
+        try (ParquetFileReader reader = open(content, fileName)) {
+            projection(reader.getFileMetaData().getSchema(), fileName);
+        } catch (FileValidationException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new FileValidationException("Invalid Parquet file: " + fileName + " (" + e.getMessage() + ")");
+        }
+    }
+
+    @Override
+    public List<StockFileModel> parse(ByteBuffer content, String fileName, String expectedCnpj,
+                                      LocalDate expectedReferenceDate) {
+        List<StockFileModel> rows = read(content, fileName, expectedCnpj, expectedReferenceDate, null);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Parquet file contains no data rows: " + fileName);
+        }
+        return rows;
+    }
+
+    @Override
+    public StockParseResult parseAccepting(ByteBuffer content, String fileName, String expectedCnpj,
+                                           LocalDate expectedReferenceDate) {
+        List<RowRejection> rejections = new ArrayList<>();
+        List<StockFileModel> rows = read(content, fileName, expectedCnpj, expectedReferenceDate, rejections);
+        if (rows.isEmpty() && rejections.isEmpty()) {
+            throw new IllegalArgumentException("Parquet file contains no data rows: " + fileName);
+        }
+        return new StockParseResult(rows, rejections);
+    }
+
+    private List<StockFileModel> read(ByteBuffer content, String fileName, String expectedCnpj,
+                                      LocalDate expectedReferenceDate, List<RowRejection> rejections) {
+        try (ParquetFileReader reader = open(content, fileName)) {
+            MessageType projection = projection(reader.getFileMetaData().getSchema(), fileName);
+            String createdBy = reader.getFileMetaData().getCreatedBy();
+            reader.setRequestedSchema(projection);
+
+            List<StockFileModel> rows = new ArrayList<>();
+            Map<String, Integer> seen = new HashMap<>();
+            int rowOffset = 0;
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                int rowCount = Math.toIntExact(rowGroup.getRowCount());
+                RowGroupColumns columns = new RowGroupColumns(rowCount);
+                ColumnReadStoreImpl store = new ColumnReadStoreImpl(rowGroup, columns, projection, createdBy);
+                for (int field = 0; field < projection.getFieldCount(); field++) {
+                    drain(store.getColumnReader(projection.getColumnDescription(new String[]{projection.getFieldName(field)})),
+                            columns.column(field));
+                }
+
+                for (int r = 0; r < rowCount; r++) {
+                    int lineNumber = rowOffset + r + 1;
+                    try {
+                        StockFileModel row = columns.toModel(r, lineNumber, fileName, expectedCnpj, expectedReferenceDate);
+                        rules.requireFirstOccurrence(seen, row.medicineName(), lineNumber, fileName);
+                        rows.add(row);
+                    } catch (IllegalArgumentException ex) {
+                        if (rejections == null) {
+                            throw ex;
+                        }
+                        rejections.add(new RowRejection(lineNumber, ex.getMessage()));
+                    }
+                }
+                rowOffset += rowCount;
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new InfrastructureException("Failed to read Parquet file: " + fileName, e);
+        }
+    }
+
+    private static void drain(ColumnReader reader, Column column) {
+        int maxDefinitionLevel = reader.getDescriptor().getMaxDefinitionLevel();
+        long values = reader.getTotalValueCount();
+        for (int row = 0; row < values; row++) {
+            if (reader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                column.row = row;
+                reader.writeCurrentValueToConverter();
+            }
+            reader.consume();
+        }
+    }
+
+    private static ParquetFileReader open(ByteBuffer content, String fileName) throws IOException {
+        if (content == null || content.remaining() < 2 * MAGIC.length + 4 || !startsWithMagic(content)) {
+            throw new FileValidationException("Not a Parquet file (missing PAR1 magic): " + fileName);
+        }
+        return ParquetFileReader.open(new ByteBufferInputFile(content.slice()));
+    }
+
+    private static boolean startsWithMagic(ByteBuffer content) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (content.get(content.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MessageType projection(MessageType schema, String fileName) {
+        return new MessageType(schema.getName(),
+                column(schema, CNPJ, fileName, PrimitiveTypeName.BINARY),
+                column(schema, MEDICINE_NAME, fileName, PrimitiveTypeName.BINARY),
+                column(schema, QUANTITY, fileName, PrimitiveTypeName.INT32, PrimitiveTypeName.INT64),
+                column(schema, REFERENCE_DATE, fileName, PrimitiveTypeName.INT32, PrimitiveTypeName.BINARY));
+    }
+
+    private static Type column(MessageType schema, String name, String fileName, PrimitiveTypeName... accepted) {
+        if (!schema.containsField(name)) {
+            throw new FileValidationException("Missing column in Parquet schema: " + name + " (" + fileName + ")");
+        }
+        Type type = schema.getType(name);
+        if (!type.isPrimitive() || type.isRepetition(Type.Repetition.REPEATED)) {
+            throw new FileValidationException("Parquet column must be a single primitive value: " + name
+                    + " (" + fileName + ")");
+        }
+
+        PrimitiveType primitive = type.asPrimitiveType();
+        for (PrimitiveTypeName candidate : accepted) {
+            if (primitive.getPrimitiveTypeName() == candidate) {
+                if (REFERENCE_DATE.equals(name) && candidate == PrimitiveTypeName.INT32
+                        && !(primitive.getLogicalTypeAnnotation() instanceof LogicalTypeAnnotation.DateLogicalTypeAnnotation)) {
+                    break;
+                }
+                return type;
+            }
+        }
+        throw new FileValidationException("Unsupported Parquet type for column " + name + ": "
+                + primitive.getPrimitiveTypeName() + " (" + fileName + ")");
+    }
+
+    private abstract static class Column extends PrimitiveConverter {
+        int row;
+    }
+
+    private static final class TextColumn extends Column {
+        private final String[] values;
+        private String[] dictionary;
+
+        private TextColumn(int rows) {
+            this.values = new String[rows];
+        }
+
+        @Override
+        public boolean hasDictionarySupport() {
+            return true;
+        }
+
+        @Override
+        public void setDictionary(Dictionary dictionary) {
+            this.dictionary = new String[dictionary.getMaxId() + 1];
+            for (int id = 0; id <= dictionary.getMaxId(); id++) {
+                this.dictionary[id] = dictionary.decodeToBinary(id).toStringUsingUTF8().trim();
+            }
+        }
+
+        @Override
+        public void addValueFromDictionary(int dictionaryId) {
+            values[row] = dictionary[dictionaryId];
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            values[row] = value.toStringUsingUTF8().trim();
+        }
+    }
+
+    private static final class NumberColumn extends Column {
+        private final long[] values;
+        private final BitSet present = new BitSet();
+
+        private NumberColumn(int rows) {
+            this.values = new long[rows];
+        }
+
+        @Override
+        public void addInt(int value) {
+            values[row] = value;
+            present.set(row);
+        }
+
+        @Override
+        public void addLong(long value) {
+            values[row] = value;
+            present.set(row);
+        }
+    }
+
+    private static final class DateColumn extends Column {
+        private final LocalDate[] days;
+        private final String[] texts;
+
+        private DateColumn(int rows) {
+            this.days = new LocalDate[rows];
+            this.texts = new String[rows];
+        }
+
+        @Override
+        public void addInt(int value) {
+            days[row] = LocalDate.ofEpochDay(value);
+        }
+
+        @Override
+        public void addBinary(Binary value) {
+            texts[row] = value.toStringUsingUTF8().trim();
+        }
+    }
+
+    private final class RowGroupColumns extends GroupConverter {
+        private final TextColumn cnpj;
+        private final TextColumn medicineName;
+        private final NumberColumn quantity;
+        private final DateColumn referenceDate;
+
+        private RowGroupColumns(int rows) {
+            this.cnpj = new TextColumn(rows);
+            this.medicineName = new TextColumn(rows);
+            this.quantity = new NumberColumn(rows);
+            this.referenceDate = new DateColumn(rows);
+        }
+
+        private Column column(int field) {
+            return switch (field) {
+                case 0 -> cnpj;
+                case 1 -> medicineName;
+                case 2 -> quantity;
+                default -> referenceDate;
+            };
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex) {
+            return column(fieldIndex);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void end() {
+        }
+
+        private StockFileModel toModel(int r, int lineNumber, String fileName, String expectedCnpj,
+                                       LocalDate expectedReferenceDate) {
+            String cnpjDigits = rules.requireCnpj(require(cnpj.values[r], CNPJ, lineNumber, fileName), lineNumber,
+                    fileName, expectedCnpj);
+            String name = rules.requireMedicineName(require(medicineName.values[r], MEDICINE_NAME, lineNumber, fileName),
+                    lineNumber, fileName);
+
+            if (!quantity.present.get(r)) {
+                throw missing(QUANTITY, lineNumber, fileName);
+            }
+            long rawQuantity = quantity.values[r];
+            if (rawQuantity != (int) rawQuantity) {
+                throw new IllegalArgumentException("Invalid quantity at line " + lineNumber + ": " + rawQuantity
+                        + " file=" + fileName);
+            }
+            int qty = rules.requireQuantity((int) rawQuantity, lineNumber, fileName);
+
+            LocalDate date = referenceDate.days[r];
+            if (date == null) {
+                date = rules.parseReferenceDate(require(referenceDate.texts[r], REFERENCE_DATE, lineNumber, fileName),
+                        lineNumber, fileName);
+            }
+            rules.requireReferenceDate(date, lineNumber, fileName, expectedReferenceDate);
+
+            return new StockFileModel(cnpjDigits, name, qty, date, lineNumber);
+        }
+    }
+
+    private static String require(String value, String column, int lineNumber, String fileName) {
+        if (value == null) {
+            throw missing(column, lineNumber, fileName);
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException missing(String column, int lineNumber, String fileName) {
+        return new IllegalArgumentException(column + " is required at line " + lineNumber + " file=" + fileName);
+    }
+
+    private static final class ByteBufferInputFile implements InputFile {
+        private final ByteBuffer content;
+
+        private ByteBufferInputFile(ByteBuffer content) {
+            this.content = content;
+        }
+
+        @Override
+        public long getLength() {
+            return content.remaining();
+        }
+
+        @Override
+        public SeekableInputStream newStream() {
+            return new ByteBufferInputStream(content.duplicate());
+        }
+    }
+
+    private static final class ByteBufferInputStream extends SeekableInputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long getPos() {
+            return buffer.position();
+        }
+
+        @Override
+        public void seek(long newPos) {
+            buffer.position(Math.toIntExact(newPos));
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(bytes, off, n);
+            return n;
+        }
+
+        @Override
+        public void readFully(byte[] bytes) throws IOException {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int start, int len) throws IOException {
+            if (buffer.remaining() < len) {
+                throw new EOFException("Reached the end of the Parquet content with " + buffer.remaining()
+                        + " bytes left to read " + len);
+            }
+            buffer.get(bytes, start, len);
+        }
+
+        @Override
+        public int read(ByteBuffer target) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(target.remaining(), buffer.remaining());
+            target.put(buffer.slice(buffer.position(), n));
+            buffer.position(buffer.position() + n);
+            return n;
+        }
+
+        @Override
+        public void readFully(ByteBuffer target) throws IOException {
+            if (buffer.remaining() < target.remaining()) {
+                throw new EOFException("Reached the end of the Parquet content with " + buffer.remaining()
+                        + " bytes left to read " + target.remaining());
+            }
+            read(target);
+        }
+    }
+}
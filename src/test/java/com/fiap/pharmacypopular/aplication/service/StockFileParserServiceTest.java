@@ -0,0 +1,128 @@
+package com.fiap.pharmacypopular.aplication.service;
+
+import com.fiap.pharmacypopular.aplication.model.StockParseResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockFileParserServiceTest {
+
+    private static final String CNPJ = "12345678000199";
+    private static final LocalDate DATE = LocalDate.of(2026, 2, 13);
+    private static final String FILE = "stock_" + CNPJ + "_2026-02-13_1.csv";
+    private static final int SEGMENT_BYTES = 64;
+    private static final int FIRST_DUPLICATE_LINE = 5;
+    private static final int SECOND_DUPLICATE_LINE = 150;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void parallelParseMatchesSequentialWithDuplicateCheck() {
+        assertSameAcceptingResult(true);
+    }
+
+    @Test
+    void parallelParseMatchesSequentialWithoutDuplicateCheck() {
+        assertSameAcceptingResult(false);
+    }
+
+    @Test
+    void duplicateAcrossSegmentBoundaryIsRejectedAtTheSameLine() {
+        ByteBuffer content = csv(true);
+        List<CsvSegments.Segment> segments = CsvSegments.split(CsvLines.afterFirst(content), 2, pool, SEGMENT_BYTES);
+
+        assertTrue(segments.size() > 1);
+        assertNotEquals(segmentOf(segments, FIRST_DUPLICATE_LINE), segmentOf(segments, SECOND_DUPLICATE_LINE));
+
+        StockParseResult parallel = parallel(true).parseAccepting(content, FILE, CNPJ, DATE);
+        assertTrue(parallel.rejections().stream().anyMatch(r -> r.lineNumber() == SECOND_DUPLICATE_LINE
+                && r.reason().contains("first seen at line " + FIRST_DUPLICATE_LINE)));
+    }
+
+    @Test
+    void strictModeReportsTheSameFirstError() {
+        ByteBuffer content = csv(false);
+
+        IllegalArgumentException sequential = assertThrows(IllegalArgumentException.class,
+                () -> sequential(true).parse(content, FILE, CNPJ, DATE));
+        IllegalArgumentException parallel = assertThrows(IllegalArgumentException.class,
+                () -> parallel(true).parse(content, FILE, CNPJ, DATE));
+
+        assertEquals(sequential.getMessage(), parallel.getMessage());
+        assertTrue(parallel.getMessage().contains("at line " + SECOND_DUPLICATE_LINE));
+    }
+
+    @Test
+    void duplicatesAreKeptWhenTheCheckIsDisabled() {
+        StockParseResult result = parallel(false).parseAccepting(csv(false), FILE, CNPJ, DATE);
+
+        assertTrue(result.rejections().isEmpty());
+        assertEquals(2, result.rows().stream().filter(r -> r.medicineName().equalsIgnoreCase("DIPIRONA 500MG")).count());
+    }
+
+    private void assertSameAcceptingResult(boolean rejectDuplicates) {
+        ByteBuffer content = csv(true);
+
+        StockParseResult sequential = sequential(rejectDuplicates).parseAccepting(content, FILE, CNPJ, DATE);
+        StockParseResult parallel = parallel(rejectDuplicates).parseAccepting(content, FILE, CNPJ, DATE);
+
+        assertEquals(sequential.rows(), parallel.rows());
+        assertEquals(sequential.rejections(), parallel.rejections());
+        assertTrue(sequential.rejections().size() >= 2);
+    }
+
+    private StockFileParserService sequential(boolean rejectDuplicates) {
+        return new StockFileParserService(Long.MAX_VALUE, pool, rejectDuplicates);
+    }
+
+    private StockFileParserService parallel(boolean rejectDuplicates) {
+        return new StockFileParserService(0, pool, rejectDuplicates, SEGMENT_BYTES);
+    }
+
+    private static int segmentOf(List<CsvSegments.Segment> segments, int line) {
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            if (segments.get(i).firstLine() <= line) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ByteBuffer csv(boolean withInvalidRows) {
+        StringBuilder csv = new StringBuilder("cnpj;medicine_name;quantity;reference_date\r\n");
+        for (int line = 2; line <= 200; line++) {
+            if (line == FIRST_DUPLICATE_LINE) {
+                csv.append(CNPJ).append(";Dipirona 500mg;10;2026-02-13\r\n");
+            } else if (line == SECOND_DUPLICATE_LINE) {
+                csv.append(CNPJ).append(";DIPIRONA 500MG;3;2026-02-13\n");
+            } else if (line % 17 == 0) {
+                csv.append("   \r\n");
+            } else if (line % 23 == 0) {
+                csv.append('\n');
+            } else if (withInvalidRows && line % 31 == 0) {
+                csv.append(CNPJ).append(";REMEDIO ").append(line).append(";-1;2026-02-13\r\n");
+            } else if (withInvalidRows && line == 199) {
+                csv.append(CNPJ).append(";SEM DATA;1\r\n");
+            } else {
+                csv.append(CNPJ).append(";REMÉDIO ").append(line).append(";").append(line).append(";2026-02-13")
+                        .append(line % 2 == 0 ? "\r\n" : "\n");
+            }
+        }
+        return ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}